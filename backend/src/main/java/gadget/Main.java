@@ -3,31 +3,46 @@ package gadget;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import gadget.ai.GeminiClient;
+import gadget.archive.ArchiveStatus;
+import gadget.archive.GadgetArchive;
 import gadget.model.Gadget;
 import gadget.model.GadgetData;
+import gadget.price.PriceExtractor;
+import gadget.publish.DeltaPublisher;
+import gadget.rss.FeedRegistry;
+import gadget.rss.FeedScheduler;
 import gadget.rss.RssFetcher;
 import gadget.scraper.ImageScraper;
+import gadget.trend.TrendStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * ガジェット情報収集バッチのメインエントリーポイント
  * 
  * 使用方法:
- * java -jar gadget-backend.jar [GEMINI_API_KEY] [OUTPUT_DIR]
+ * java -jar gadget-backend.jar [GEMINI_API_KEY] [OUTPUT_DIR] [STATE_DIR] [FEEDS_CONFIG]
  * 
  * 環境変数:
  * GEMINI_API_KEY: Gemini APIキー
  * OUTPUT_DIR: 出力ディレクトリ（デフォルト: ../frontend/public/data）
+ * STATE_DIR: 実行間で引き継ぐ状態の保存先（デフォルト: state）
+ * FEEDS_CONFIG: フィード設定ファイル（デフォルト: クラスパスの feeds.json）
+ * ALLOW_ARCHIVE_RESET: true の場合、アーカイブが記録より小さくても続行する（意図的に作り直す場合のみ）
  */
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
@@ -40,64 +55,115 @@ public class Main {
         // 設定の取得
         String apiKey = getConfig(args, 0, "GEMINI_API_KEY", null);
         String outputDir = getConfig(args, 1, "OUTPUT_DIR", "../frontend/public/data");
+        String stateDir = getConfig(args, 2, "STATE_DIR", "state");
+        String feedsConfig = getConfig(args, 3, "FEEDS_CONFIG", null);
 
         if (apiKey == null || apiKey.isEmpty()) {
             logger.warn("GEMINI_API_KEY is not set. Running in demo mode (no AI processing).");
         }
 
-        try {
+        try (GadgetArchive archive = GadgetArchive.open(Paths.get(stateDir, "archive"))) {
+            Path archiveStatusFile = Paths.get(stateDir, "archive-status.json");
+            ArchiveStatus archiveStatus = ArchiveStatus.load(archiveStatusFile);
+            // 消失したアーカイブで続行すると件数の記録と保存済みのアーカイブを上書きしてしまうため中断する
+            if (!archiveStatus.verify(archive) && !"true".equalsIgnoreCase(System.getenv("ALLOW_ARCHIVE_RESET"))) {
+                throw new IllegalStateException(
+                        "Archive is smaller than recorded. Restore it, or set ALLOW_ARCHIVE_RESET=true to start over");
+            }
+
             // 1. RSSフィードからガジェット情報を取得
             logger.info("Step 1: Fetching RSS feeds...");
-            RssFetcher rssFetcher = new RssFetcher();
-            List<Gadget> gadgets = rssFetcher.fetchAll();
-            logger.info("Fetched {} gadgets from RSS feeds", gadgets.size());
+            FeedRegistry feedRegistry = FeedRegistry.load(feedsConfig);
+            FeedScheduler feedScheduler = FeedScheduler.load(Paths.get(stateDir, "feed-stats.json"));
+            RssFetcher rssFetcher = new RssFetcher(feedRegistry.getSources(), feedScheduler);
+            List<Gadget> fetched = rssFetcher.fetchAll();
+            logger.info("Fetched {} gadgets from RSS feeds", fetched.size());
+
+            // 前回出力済み・アーカイブ済みの記事は再処理しない
+            List<Gadget> previous = loadPreviousGadgets(outputDir);
+            Set<String> knownUrls = new HashSet<>();
+            for (Gadget gadget : previous) {
+                knownUrls.add(gadget.getSourceUrl());
+            }
+            List<Gadget> newGadgets = fetched.stream()
+                    .filter(g -> !archive.contains(g.getSourceUrl()) && knownUrls.add(g.getSourceUrl()))
+                    .sorted(Comparator.comparingLong(Gadget::getPublishedAtMillis).reversed())
+                    .collect(Collectors.toList());
+            logger.info("{} new gadgets to process ({} already published)", newGadgets.size(), previous.size());
 
-            if (gadgets.isEmpty()) {
-                logger.warn("No gadgets fetched. Check network connectivity.");
+            if (newGadgets.isEmpty()) {
+                // 新着が無くてもスコアは減衰するため、公開中の記事のトレンド判定だけは更新する
+                if (!previous.isEmpty()
+                        && calculateTrends(previous, List.of(), Paths.get(stateDir, "trend-scores.json"))) {
+                    logger.info("No new gadgets. Republishing with updated trends...");
+                    publish(previous, outputDir, stateDir);
+                } else {
+                    logger.info("No new gadgets. Keeping existing data.");
+                }
+                archiveStatus.save(archiveStatusFile, archive);
+                feedScheduler.save();
                 return;
             }
 
-            // 最新の記事を優先（最大件数制限）
-            gadgets = gadgets.stream()
-                    .sorted(Comparator.comparing(Gadget::getPublishedAt).reversed())
-                    .limit(MAX_GADGETS)
-                    .collect(Collectors.toList());
-            logger.info("Limited to {} most recent gadgets", gadgets.size());
+            // 公開対象になり得るのは新しい順に最大件数まで。それ以外はアーカイブ用にローカル処理のみ行う
+            int enrichCount = Math.min(MAX_GADGETS, newGadgets.size());
+            List<Gadget> gadgets = newGadgets.subList(0, enrichCount);
+            List<Gadget> archiveOnly = newGadgets.subList(enrichCount, newGadgets.size());
 
             // 2. Gemini AIで加工（APIキーがある場合のみ）
+            PriceExtractor priceExtractor = new PriceExtractor();
             if (apiKey != null && !apiKey.isEmpty()) {
                 logger.info("Step 2: Processing with Gemini AI...");
-                GeminiClient geminiClient = new GeminiClient(apiKey);
+                GeminiClient geminiClient = new GeminiClient(apiKey, priceExtractor);
                 geminiClient.processGadgets(gadgets);
             } else {
                 logger.info("Step 2: Skipping AI processing (no API key)");
-                // デフォルト値を設定
-                for (Gadget gadget : gadgets) {
-                    if (gadget.getSummary() == null) {
-                        gadget.setSummary(gadget.getTitle() + "に関する最新情報です。詳細は記事をご覧ください。");
-                    }
-                    if (gadget.getCategory() == null) {
-                        gadget.setCategory(guessCategory(gadget.getTitle()));
-                    }
-                    if (gadget.getPriceText() == null) {
-                        gadget.setPriceText("価格未定");
-                    }
-                }
+                applyLocalDefaults(gadgets, priceExtractor);
+                priceExtractor.logSummary();
             }
+            if (!archiveOnly.isEmpty()) {
+                logger.info("Archiving {} older new gadgets without AI processing", archiveOnly.size());
+                applyLocalDefaults(archiveOnly, priceExtractor);
+            }
+            // 加工済みのため元のHTMLは不要
+            newGadgets.forEach(Gadget::releaseOriginalContent);
 
             // 3. 画像URLを取得
-            logger.info("Step 3: Fetching images...");
-            ImageScraper imageScraper = new ImageScraper();
-            imageScraper.fetchImagesForGadgets(gadgets);
+            // RSSの添付画像で全件揃っている場合はJsoupを読み込まない
+            if (gadgets.stream().anyMatch(g -> g.getImageUrl() == null && g.getSourceUrl() != null)) {
+                logger.info("Step 3: Fetching images...");
+                ImageScraper imageScraper = new ImageScraper();
+                imageScraper.fetchImagesForGadgets(gadgets);
+            } else {
+                logger.info("Step 3: Skipping image fetching (no gadgets without images)");
+            }
 
-            // 4. トレンド判定（同一製品の露出度に基づく）
+            // 前回分とマージして最新の記事を優先（最大件数制限）
+            List<Gadget> merged = new ArrayList<>(newGadgets);
+            merged.addAll(previous);
+            gadgets = merged.stream()
+                    .sorted(Comparator.comparingLong(Gadget::getPublishedAtMillis).reversed())
+                    .limit(MAX_GADGETS)
+                    .collect(Collectors.toList());
+            logger.info("Limited to {} most recent gadgets", gadgets.size());
+
+            // 4. トレンド判定（実行間で引き継ぐ減衰スコアに基づく）
             logger.info("Step 4: Calculating trends...");
-            calculateTrends(gadgets);
+            calculateTrends(gadgets, newGadgets, Paths.get(stateDir, "trend-scores.json"));
 
             // 5. JSONファイルに出力
             logger.info("Step 5: Saving to JSON...");
-            GadgetData gadgetData = new GadgetData(gadgets);
-            saveToJson(gadgetData, outputDir);
+            publish(gadgets, outputDir, stateDir);
+
+            // 6. アーカイブに追記（公開件数から外れた新着記事も履歴として残す）
+            logger.info("Step 6: Archiving new gadgets...");
+            archive.appendAll(newGadgets);
+            if (archive.needsCompaction()) {
+                archive.compact();
+            }
+            archiveStatus.save(archiveStatusFile, archive);
+            // 取得位置はアーカイブに保存した後で進める（途中で失敗した場合は次回同じ記事を再取得する）
+            feedScheduler.save();
 
             logger.info("=== Completed successfully! ===");
             logger.info("Output: {}/gadgets.json", outputDir);
@@ -121,6 +187,24 @@ public class Main {
         return defaultValue;
     }
 
+    /**
+     * AIを使わずにローカル抽出で得られた価格のみ設定し、その他はデフォルト値とする
+     */
+    private static void applyLocalDefaults(List<Gadget> gadgets, PriceExtractor priceExtractor) {
+        for (Gadget gadget : gadgets) {
+            priceExtractor.apply(gadget);
+            if (gadget.getSummary() == null) {
+                gadget.setSummary(gadget.getTitle() + "に関する最新情報です。詳細は記事をご覧ください。");
+            }
+            if (gadget.getCategory() == null) {
+                gadget.setCategory(guessCategory(gadget.getTitle()));
+            }
+            if (gadget.getPriceText() == null) {
+                gadget.setPriceText("価格未定");
+            }
+        }
+    }
+
     private static String guessCategory(String title) {
         if (title == null)
             return "Mobile";
@@ -154,39 +238,57 @@ public class Main {
         return "Mobile";
     }
 
-    private static void calculateTrends(List<Gadget> gadgets) {
-        // 製品名のキーワードでグループ化し、複数ソースで言及されている製品をトレンドに
-        java.util.Map<String, Long> keywordCounts = new java.util.HashMap<>();
-
+    /**
+     * 永続化した減衰スコアを新着記事分だけ更新し、全記事のトレンドを判定する
+     *
+     * @return いずれかの記事のトレンド判定が変わった場合は true
+     */
+    private static boolean calculateTrends(List<Gadget> gadgets, List<Gadget> newGadgets, Path stateFile)
+            throws IOException {
+        long now = System.currentTimeMillis();
+        TrendStore trendStore = TrendStore.load(stateFile);
+        trendStore.recordAll(newGadgets, now);
+        boolean changed = false;
         for (Gadget gadget : gadgets) {
-            String title = gadget.getTitle().toLowerCase();
-            // 主要な製品名キーワード
-            String[] trendKeywords = { "iphone", "pixel", "galaxy", "macbook", "surface", "airpods", "apple watch" };
-            for (String keyword : trendKeywords) {
-                if (title.contains(keyword)) {
-                    keywordCounts.merge(keyword, 1L, Long::sum);
-                }
-            }
+            boolean trending = trendStore.isTrending(gadget, now);
+            changed |= trending != gadget.isTrending();
+            gadget.setTrending(trending);
         }
+        trendStore.save(now);
+        logger.info("{} of {} gadgets are trending", gadgets.stream().filter(Gadget::isTrending).count(),
+                gadgets.size());
+        return changed;
+    }
 
-        // 2回以上言及された製品をトレンドに
-        for (Gadget gadget : gadgets) {
-            String title = gadget.getTitle().toLowerCase();
-            for (java.util.Map.Entry<String, Long> entry : keywordCounts.entrySet()) {
-                if (entry.getValue() >= 2 && title.contains(entry.getKey())) {
-                    gadget.setTrending(true);
-                    break;
-                }
-            }
-        }
+    /**
+     * gadgets.json とマニフェスト・差分ファイルを新しいバージョンとして出力
+     */
+    private static void publish(List<Gadget> gadgets, String outputDir, String stateDir) throws IOException {
+        DeltaPublisher deltaPublisher = new DeltaPublisher(Paths.get(outputDir), Paths.get(stateDir, "versions"));
+        GadgetData gadgetData = new GadgetData(gadgets);
+        gadgetData.setVersion(deltaPublisher.nextVersion());
+        saveToJson(gadgetData, outputDir);
+        deltaPublisher.publish(gadgetData);
+    }
 
-        // トレンドが少なすぎる場合、最新3件をトレンドに
-        long trendCount = gadgets.stream().filter(Gadget::isTrending).count();
-        if (trendCount < 3) {
-            gadgets.stream()
-                    .sorted(Comparator.comparing(Gadget::getPublishedAt).reversed())
-                    .limit(3)
-                    .forEach(g -> g.setTrending(true));
+    /**
+     * 前回出力したgadgets.jsonを読み込む（存在しない場合は空リスト）
+     */
+    private static List<Gadget> loadPreviousGadgets(String outputDir) {
+        Path filePath = Paths.get(outputDir, "gadgets.json");
+        if (!Files.exists(filePath)) {
+            return List.of();
+        }
+        try (Reader reader = Files.newBufferedReader(filePath, StandardCharsets.UTF_8)) {
+            GadgetData data = new Gson().fromJson(reader, GadgetData.class);
+            if (data == null || data.getGadgets() == null) {
+                return List.of();
+            }
+            data.getGadgets().forEach(Gadget::releaseOriginalContent);
+            return data.getGadgets();
+        } catch (Exception e) {
+            logger.warn("Failed to load previous gadgets from {}: {}", filePath, e.getMessage());
+            return List.of();
         }
     }
 
@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import gadget.model.Gadget;
+import gadget.price.PriceExtractor;
 import okhttp3.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,28 +21,50 @@ import java.util.regex.Pattern;
 public class GeminiClient {
     private static final Logger logger = LoggerFactory.getLogger(GeminiClient.class);
     private static final String API_BASE_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent";
+    // 価格がローカルで確定し、本文もほぼ無い場合はAIに問い合わせない
+    private static final double SKIP_AI_CONFIDENCE = 0.9;
+    private static final int MIN_CONTENT_LENGTH = 40;
 
     private final String apiKey;
-    private final OkHttpClient httpClient;
+    private final PriceExtractor priceExtractor;
     private final Gson gson;
+    private OkHttpClient httpClient;
+    private int skipped;
 
-    public GeminiClient(String apiKey) {
+    public GeminiClient(String apiKey, PriceExtractor priceExtractor) {
         this.apiKey = apiKey;
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(60, TimeUnit.SECONDS)
-                .build();
+        this.priceExtractor = priceExtractor;
         this.gson = new Gson();
     }
 
+    /**
+     * 全件がローカル処理で済んだ場合にOkHttp（Kotlin標準ライブラリを含む）を読み込まないよう、初回の呼び出し時に生成
+     */
+    private OkHttpClient httpClient() {
+        if (httpClient == null) {
+            httpClient = new OkHttpClient.Builder()
+                    .connectTimeout(30, TimeUnit.SECONDS)
+                    .readTimeout(60, TimeUnit.SECONDS)
+                    .build();
+        }
+        return httpClient;
+    }
+
     /**
      * ガジェット情報をAIで加工（要約・価格抽出・カテゴリ判定）
      */
     public void processGadget(Gadget gadget) {
+        // ローカル抽出で価格が確定すれば価格項目なしの短いプロンプトを使う
+        PriceExtractor.Result localPrice = priceExtractor.apply(gadget);
+        if (localPrice.confidence() >= SKIP_AI_CONFIDENCE && !hasSubstantialContent(gadget)) {
+            skipped++;
+            setDefaultValues(gadget);
+            return;
+        }
         try {
-            String prompt = buildPrompt(gadget);
+            String prompt = buildPrompt(gadget, !localPrice.isConfident());
             String response = callGeminiApi(prompt);
-            parseAndApplyResponse(gadget, response);
+            parseAndApplyResponse(gadget, response, localPrice.isConfident());
 
             // レート制限対策（1秒待機）
             Thread.sleep(1000);
@@ -65,10 +88,22 @@ public class GeminiClient {
                 logger.info("Processed {}/{} gadgets", count, gadgets.size());
             }
         }
-        logger.info("Completed processing {} gadgets", gadgets.size());
+        logger.info("Completed processing {} gadgets ({} without AI call)", gadgets.size(), skipped);
+        priceExtractor.logSummary();
     }
 
-    private String buildPrompt(Gadget gadget) {
+    private boolean hasSubstantialContent(Gadget gadget) {
+        return PriceExtractor.toPlainText(gadget.getOriginalContent()).strip().length() >= MIN_CONTENT_LENGTH;
+    }
+
+    /**
+     * 分析用のプロンプトを生成（価格がローカルで確定している場合は価格項目を省く）
+     */
+    private String buildPrompt(Gadget gadget, boolean includePrice) {
+        String priceFields = includePrice ? """
+                  "price": 税込価格（数値のみ、不明な場合はnull）,
+                  "priceText": "価格表示テキスト（例：¥99,800、不明な場合は「価格未定」）",
+                """ : "";
         return """
                 以下のガジェット情報を分析して、JSON形式で回答してください。
 
@@ -77,20 +112,18 @@ public class GeminiClient {
 
                 回答形式（JSON）:
                 {
-                  "summary": "3行以内の日本語要約（製品の特徴、性能、価格などの要点）",
-                  "price": 税込価格（数値のみ、不明な場合はnull）,
-                  "priceText": "価格表示テキスト（例：¥99,800、不明な場合は「価格未定」）",
-                  "category": "カテゴリ（Mobile/PC/Wearable/Audio/Smart Home のいずれか）",
-                  "isTrending": トレンド性が高いかどうか（true/false）
+                  "summary": "3行以内の日本語要約（製品の特徴、性能%sなどの要点）",
+                %s  "category": "カテゴリ（Mobile/PC/Wearable/Audio/Smart Home のいずれか）"
                 }
 
                 注意:
                 - summaryは必ず日本語で、製品の魅力が伝わる文章にしてください
                 - categoryは必ず5つのうちいずれかを選択してください
-                - isTrendingは、新製品発表や大きなアップデートの場合にtrueにしてください
                 """.formatted(
                 gadget.getTitle(),
-                gadget.getOriginalContent() != null ? gadget.getOriginalContent() : "（内容なし）");
+                gadget.getOriginalContent() != null ? gadget.getOriginalContent() : "（内容なし）",
+                includePrice ? "、価格" : "",
+                priceFields);
     }
 
     private String callGeminiApi(String prompt) throws IOException {
@@ -113,7 +146,7 @@ public class GeminiClient {
                         MediaType.parse("application/json")))
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 throw new IOException("API request failed: " + response.code());
             }
@@ -121,7 +154,7 @@ public class GeminiClient {
         }
     }
 
-    private void parseAndApplyResponse(Gadget gadget, String response) {
+    private void parseAndApplyResponse(Gadget gadget, String response, boolean priceResolved) {
         try {
             JsonObject jsonResponse = gson.fromJson(response, JsonObject.class);
             JsonArray candidates = jsonResponse.getAsJsonArray("candidates");
@@ -143,15 +176,17 @@ public class GeminiClient {
             if (aiResult.has("summary") && !aiResult.get("summary").isJsonNull()) {
                 gadget.setSummary(aiResult.get("summary").getAsString());
             }
-            if (aiResult.has("price") && !aiResult.get("price").isJsonNull()) {
-                gadget.setPrice(aiResult.get("price").getAsLong());
-            }
-            if (aiResult.has("priceText") && !aiResult.get("priceText").isJsonNull()) {
-                gadget.setPriceText(aiResult.get("priceText").getAsString());
-            } else if (gadget.getPrice() != null) {
-                gadget.setPriceText("¥" + String.format("%,d", gadget.getPrice()));
-            } else {
-                gadget.setPriceText("価格未定");
+            if (!priceResolved) {
+                if (aiResult.has("price") && !aiResult.get("price").isJsonNull()) {
+                    gadget.setPrice(aiResult.get("price").getAsLong());
+                }
+                if (aiResult.has("priceText") && !aiResult.get("priceText").isJsonNull()) {
+                    gadget.setPriceText(aiResult.get("priceText").getAsString());
+                } else if (gadget.getPrice() != null) {
+                    gadget.setPriceText("¥" + String.format("%,d", gadget.getPrice()));
+                } else {
+                    gadget.setPriceText("価格未定");
+                }
             }
             if (aiResult.has("category") && !aiResult.get("category").isJsonNull()) {
                 String category = aiResult.get("category").getAsString();
@@ -161,9 +196,6 @@ public class GeminiClient {
                     gadget.setCategory(guessCategory(gadget.getTitle()));
                 }
             }
-            if (aiResult.has("isTrending") && !aiResult.get("isTrending").isJsonNull()) {
-                gadget.setTrending(aiResult.get("isTrending").getAsBoolean());
-            }
 
         } catch (Exception e) {
             logger.warn("Failed to parse AI response: {}", e.getMessage());
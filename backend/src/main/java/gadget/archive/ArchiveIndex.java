@@ -0,0 +1,221 @@
+package gadget.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongFunction;
+
+/**
+ * キー（記事URL）→ レコード位置のオンディスク・ハッシュインデックス（オープンアドレス法）
+ *
+ * ファイル全体をメモリマップして参照するため、件数に関わらずヒープをほぼ消費しない。
+ * スロットはキーの64bitハッシュとログ上のオフセットの組で、ハッシュが一致した場合は
+ * ログ上のレコードのキーと照合して衝突を判定する。
+ */
+final class ArchiveIndex implements Closeable {
+    private static final int MAGIC = 0x47414458; // "GADX"
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = 16;
+    private static final int MIN_CAPACITY = 1024;
+    private static final double MAX_LOAD = 0.7;
+
+    private final Path path;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    private ArchiveIndex(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * インデックスファイルを開く（存在しない場合は空のインデックスを作成）
+     */
+    static ArchiveIndex open(Path path) throws IOException {
+        ArchiveIndex index = new ArchiveIndex(path);
+        if (!Files.exists(path) || Files.size(path) < HEADER_SIZE) {
+            create(path, MIN_CAPACITY, 0).close();
+        }
+        index.map();
+        if (index.buffer.getInt(0) != MAGIC) {
+            index.close();
+            create(path, MIN_CAPACITY, 0).close();
+            index.map();
+        }
+        return index;
+    }
+
+    /**
+     * 指定容量の空インデックスを新規作成する
+     */
+    static ArchiveIndex create(Path path, int expectedEntries, long generation) throws IOException {
+        Files.deleteIfExists(path);
+        ArchiveIndex index = new ArchiveIndex(path);
+        int capacity = capacityFor(expectedEntries);
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            buf.putInt(0, MAGIC);
+            buf.putInt(4, capacity);
+            buf.putInt(8, 0);
+            buf.putLong(16, 0);
+            buf.putLong(24, generation);
+            buf.force();
+        }
+        index.map();
+        return index;
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        capacity = buffer.getInt(4);
+        count = buffer.getInt(8);
+    }
+
+    int count() { return count; }
+
+    long indexedLogSize() { return buffer.getLong(16); }
+    void setIndexedLogSize(long size) { buffer.putLong(16, size); }
+
+    long generation() { return buffer.getLong(24); }
+
+    /**
+     * キーに対応するレコード位置を返す（存在しない場合は-1）
+     *
+     * @param keyAt オフセットからレコードのキーを読み取る関数
+     */
+    long find(String key, LongFunction<String> keyAt) {
+        long hash = hash(key);
+        int mask = capacity - 1;
+        for (int slot = (int) (hash & mask); ; slot = (slot + 1) & mask) {
+            int pos = HEADER_SIZE + slot * SLOT_SIZE;
+            long slotHash = buffer.getLong(pos);
+            if (slotHash == 0) {
+                return -1;
+            }
+            if (slotHash == hash) {
+                long offset = buffer.getLong(pos + 8);
+                if (key.equals(keyAt.apply(offset))) {
+                    return offset;
+                }
+            }
+        }
+    }
+
+    /**
+     * キーとレコード位置を登録する（同一キーが登録済みの場合は位置を更新）
+     *
+     * @return 新規キーの場合true
+     */
+    boolean put(String key, long offset, LongFunction<String> keyAt) throws IOException {
+        ensureCapacity(1);
+        long hash = hash(key);
+        int mask = capacity - 1;
+        for (int slot = (int) (hash & mask); ; slot = (slot + 1) & mask) {
+            int pos = HEADER_SIZE + slot * SLOT_SIZE;
+            long slotHash = buffer.getLong(pos);
+            if (slotHash == 0) {
+                writeSlot(pos, hash, offset);
+                return true;
+            }
+            if (slotHash == hash && key.equals(keyAt.apply(buffer.getLong(pos + 8)))) {
+                buffer.putLong(pos + 8, offset);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 重複しないことが分かっているキーを照合なしで登録する（再構築用）
+     */
+    void putUnique(String key, long offset) throws IOException {
+        ensureCapacity(1);
+        insertHash(hash(key), offset);
+    }
+
+    /**
+     * 追加件数を見込んで負荷率を超える場合は容量を倍にして再ハッシュする
+     */
+    void ensureCapacity(int additional) throws IOException {
+        if (count + additional <= capacity * MAX_LOAD) {
+            return;
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        ArchiveIndex grown = create(tmp, count + additional, generation());
+        for (int slot = 0; slot < capacity; slot++) {
+            int pos = HEADER_SIZE + slot * SLOT_SIZE;
+            long slotHash = buffer.getLong(pos);
+            if (slotHash != 0) {
+                grown.insertHash(slotHash, buffer.getLong(pos + 8));
+            }
+        }
+        grown.setIndexedLogSize(indexedLogSize());
+        grown.close();
+        close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map();
+    }
+
+    private void insertHash(long hash, long offset) {
+        int mask = capacity - 1;
+        for (int slot = (int) (hash & mask); ; slot = (slot + 1) & mask) {
+            int pos = HEADER_SIZE + slot * SLOT_SIZE;
+            if (buffer.getLong(pos) == 0) {
+                writeSlot(pos, hash, offset);
+                return;
+            }
+        }
+    }
+
+    private void writeSlot(int pos, long hash, long offset) {
+        buffer.putLong(pos, hash);
+        buffer.putLong(pos + 8, offset);
+        count++;
+        buffer.putInt(8, count);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD < entries) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * FNV-1a 64bit（0は空きスロットを表すため使用しない）
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,83 @@
+package gadget.archive;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * アーカイブの件数をリポジトリ管理下の状態ファイルに記録し、アーカイブの消失を検出する
+ *
+ * アーカイブ本体はリポジトリ外に保存するため、取得に失敗すると空の状態で開かれてしまう。
+ * 記事URLごとの件数は圧縮しても減らないので、前回記録した件数を下回っていれば消失とみなす。
+ */
+public class ArchiveStatus {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveStatus.class);
+
+    private int count;
+    private String updatedAt;
+
+    /**
+     * 状態ファイルから読み込む（存在しない場合は件数0）
+     */
+    public static ArchiveStatus load(Path stateFile) {
+        if (stateFile != null && Files.exists(stateFile)) {
+            try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+                ArchiveStatus loaded = new Gson().fromJson(reader, ArchiveStatus.class);
+                if (loaded != null) {
+                    return loaded;
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to load archive status from {}: {}", stateFile, e.getMessage());
+            }
+        }
+        return new ArchiveStatus();
+    }
+
+    /**
+     * 開いたアーカイブが前回記録した件数を下回っていればエラーを記録する
+     *
+     * @return アーカイブが前回の状態を保っていれば true
+     */
+    public boolean verify(GadgetArchive archive) {
+        if (archive.size() >= count) {
+            return true;
+        }
+        logger.error("Archive has {} gadgets but {} were recorded at {}; it was lost or restored from an older copy",
+                archive.size(), count, updatedAt);
+        return false;
+    }
+
+    /**
+     * 現在の件数を状態ファイルに保存（件数が変わっていない場合は書き込まない）
+     */
+    public void save(Path stateFile, GadgetArchive archive) throws IOException {
+        if (archive.size() == count && Files.exists(stateFile)) {
+            return;
+        }
+        count = archive.size();
+        updatedAt = Instant.now().toString();
+        if (stateFile.getParent() != null) {
+            Files.createDirectories(stateFile.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(stateFile, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(this, writer);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,543 @@
+package gadget.archive;
+
+import gadget.model.Gadget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 全実行分のガジェットを保持する追記専用アーカイブ
+ *
+ * 構成ファイル:
+ * - gadgets.log: レコードの追記ログ（1GB単位のチャンクに分けてメモリマップで参照）
+ * - gadgets.idx: 記事URL → レコード位置のハッシュインデックス（ArchiveIndex）
+ * - gadgets.seg: 追記バッチごとの範囲と公開日時の最小・最大（時間範囲スキャン用）
+ *
+ * 同一URLの記事を再度追記した場合は新しいレコードが有効になり、古いレコードは
+ * compact() で除去される。compact() 後のログは公開日時順に並ぶ。
+ */
+public class GadgetArchive implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(GadgetArchive.class);
+
+    private static final int LOG_MAGIC = 0x4741444c; // "GADL"
+    private static final int SEG_MAGIC = 0x47414453; // "GADS"
+    private static final int FILE_HEADER_SIZE = 16;
+    private static final int SEGMENT_ENTRY_SIZE = 40;
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final int PADDING = 0; // チャンク末尾までの詰め物を表す長さ
+    private static final int SEGMENT_RECORDS = 4096;
+    private static final int MAX_SEGMENTS = 512;
+
+    private final Path logPath;
+    private final Path indexPath;
+    private final Path segmentPath;
+
+    private FileChannel logChannel;
+    private long logSize;
+    private long generation;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private ArchiveIndex index;
+    private final List<Segment> segments = new ArrayList<>();
+
+    private GadgetArchive(Path dir) {
+        this.logPath = dir.resolve("gadgets.log");
+        this.indexPath = dir.resolve("gadgets.idx");
+        this.segmentPath = dir.resolve("gadgets.seg");
+    }
+
+    /**
+     * アーカイブを開く（存在しない場合は新規作成）
+     */
+    public static GadgetArchive open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        GadgetArchive archive = new GadgetArchive(dir);
+        archive.openFiles();
+        return archive;
+    }
+
+    private void openFiles() throws IOException {
+        logChannel = FileChannel.open(logPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (logChannel.size() < FILE_HEADER_SIZE) {
+            generation = System.currentTimeMillis();
+            logChannel.truncate(0);
+            writeHeader(logChannel, LOG_MAGIC, generation);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            logChannel.read(header, 0);
+            if (header.getInt(0) != LOG_MAGIC) {
+                throw new IOException("Not a gadget archive log: " + logPath);
+            }
+            generation = header.getLong(8);
+        }
+        logSize = logChannel.size();
+
+        index = ArchiveIndex.open(indexPath);
+        boolean consistent = index.generation() == generation
+                && index.indexedLogSize() >= FILE_HEADER_SIZE
+                && index.indexedLogSize() <= logSize
+                && loadSegments();
+        if (!consistent) {
+            // 世代が一致しない（圧縮中断など）場合はログから再構築
+            if (logSize > FILE_HEADER_SIZE) {
+                logger.info("Rebuilding archive index from {}", logPath);
+            }
+            index.close();
+            index = ArchiveIndex.create(indexPath, 0, generation);
+            index.setIndexedLogSize(FILE_HEADER_SIZE);
+            segments.clear();
+            rewriteSegments(segmentPath, segments, generation);
+        } else {
+            dropUnindexedSegments(index.indexedLogSize());
+        }
+        if (index.indexedLogSize() < logSize) {
+            recoverTail(index.indexedLogSize());
+        }
+    }
+
+    /**
+     * 件数（記事URLの種類数）
+     */
+    public int size() {
+        return index.count();
+    }
+
+    /**
+     * ガジェットをまとめて追記する（1回の書き込みと1回の同期で完了）
+     */
+    public void appendAll(List<Gadget> gadgets) throws IOException {
+        // 記事URLがキーのため、URLの無い記事は保存しない
+        gadgets = gadgets.stream().filter(g -> g.getSourceUrl() != null).toList();
+        if (gadgets.isEmpty()) {
+            return;
+        }
+        long start = logSize;
+        long position = start;
+        long[] offsets = new long[gadgets.size()];
+        long minPublished = Long.MAX_VALUE;
+        long maxPublished = Long.MIN_VALUE;
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+
+        for (int i = 0; i < gadgets.size(); i++) {
+            Gadget gadget = gadgets.get(i);
+            byte[] payload = GadgetRecordCodec.encode(gadget);
+            int recordSize = Integer.BYTES + payload.length;
+            if (recordSize > CHUNK_SIZE - FILE_HEADER_SIZE) {
+                throw new IOException("Record too large: " + gadget.getSourceUrl());
+            }
+            // レコードがチャンク境界をまたがないように詰め物を入れる
+            long remaining = CHUNK_SIZE - (position & (CHUNK_SIZE - 1));
+            if (recordSize > remaining) {
+                byte[] padding = new byte[(int) remaining];
+                batch.write(padding);
+                position += remaining;
+            }
+            offsets[i] = position;
+            batch.write(ByteBuffer.allocate(Integer.BYTES).putInt(payload.length).array());
+            batch.write(payload);
+            position += recordSize;
+            minPublished = Math.min(minPublished, gadget.getPublishedAtMillis());
+            maxPublished = Math.max(maxPublished, gadget.getPublishedAtMillis());
+        }
+
+        ByteBuffer data = ByteBuffer.wrap(batch.toByteArray());
+        long writeAt = start;
+        while (data.hasRemaining()) {
+            writeAt += logChannel.write(data, writeAt);
+        }
+        logChannel.force(false);
+        logSize = position;
+        // 末尾チャンクのマップ範囲が古くなるため再マップさせる
+        chunks.clear();
+
+        index.ensureCapacity(gadgets.size());
+        for (int i = 0; i < gadgets.size(); i++) {
+            index.put(gadgets.get(i).getSourceUrl(), offsets[i], this::keyAt);
+        }
+        appendSegment(new Segment(start, logSize, minPublished, maxPublished, gadgets.size()));
+        index.setIndexedLogSize(logSize);
+        index.force();
+        logger.info("Archived {} gadgets ({} total)", gadgets.size(), index.count());
+    }
+
+    /**
+     * 記事URLでガジェットの最新版を取得（存在しない場合はnull）
+     */
+    public Gadget findBySourceUrl(String sourceUrl) {
+        long offset = sourceUrl == null ? -1 : index.find(sourceUrl, this::keyAt);
+        return offset < 0 ? null : GadgetRecordCodec.decode(recordAt(offset));
+    }
+
+    /**
+     * 記事URLがアーカイブ済みかどうか（レコードを復元せずに判定）
+     */
+    public boolean contains(String sourceUrl) {
+        return sourceUrl != null && index.find(sourceUrl, this::keyAt) >= 0;
+    }
+
+    /**
+     * 公開日時が [fromMillis, toMillis] の範囲にあるガジェットを順に読み出す
+     *
+     * 範囲外のセグメントは読み飛ばし、範囲内のセグメントはログを先頭から順に読む。
+     * compact() 後は公開日時順に、それ以前は追記順に返す。
+     */
+    public void scan(long fromMillis, long toMillis, Consumer<Gadget> consumer) {
+        for (Segment segment : segments) {
+            if (segment.maxPublished() < fromMillis || segment.minPublished() > toMillis) {
+                continue;
+            }
+            forEachRecord(segment.start(), segment.end(), (offset, record) -> {
+                long published = GadgetRecordCodec.readPublishedAt(record);
+                if (published >= fromMillis && published <= toMillis && isLive(offset, record)) {
+                    consumer.accept(GadgetRecordCodec.decode(record));
+                }
+            });
+        }
+    }
+
+    /**
+     * 古い版のレコードが多い、またはセグメントが細かくなりすぎた場合に圧縮が必要
+     */
+    public boolean needsCompaction() {
+        long records = segments.stream().mapToLong(Segment::records).sum();
+        long stale = records - index.count();
+        return segments.size() > MAX_SEGMENTS || stale > index.count() / 4;
+    }
+
+    /**
+     * 有効なレコードのみを公開日時順に書き直し、インデックスとセグメントを再構築する
+     */
+    public void compact() throws IOException {
+        // 有効なレコードの (公開日時, 位置) を収集
+        int live = index.count();
+        long[] published = new long[live];
+        long[] offsets = new long[live];
+        int[] n = {0};
+        for (Segment segment : segments) {
+            forEachRecord(segment.start(), segment.end(), (offset, record) -> {
+                if (isLive(offset, record)) {
+                    published[n[0]] = GadgetRecordCodec.readPublishedAt(record);
+                    offsets[n[0]] = offset;
+                    n[0]++;
+                }
+            });
+        }
+        Integer[] order = new Integer[n[0]];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(published[a], published[b]));
+
+        long newGeneration = Math.max(generation + 1, System.currentTimeMillis());
+        Path tmpLog = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+        Path tmpIndex = indexPath.resolveSibling(indexPath.getFileName() + ".compact");
+        Path tmpSegments = segmentPath.resolveSibling(segmentPath.getFileName() + ".tmp");
+        List<Segment> newSegments = new ArrayList<>();
+
+        try (FileChannel out = FileChannel.open(tmpLog, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             ArchiveIndex newIndex = ArchiveIndex.create(tmpIndex, order.length, newGeneration)) {
+            writeHeader(out, LOG_MAGIC, newGeneration);
+            long position = FILE_HEADER_SIZE;
+            long segmentStart = position;
+            int segmentRecords = 0;
+            long segmentMin = Long.MAX_VALUE;
+            long segmentMax = Long.MIN_VALUE;
+
+            for (int i : order) {
+                ByteBuffer record = recordAt(offsets[i]);
+                int recordSize = Integer.BYTES + record.remaining();
+                long remaining = CHUNK_SIZE - (position & (CHUNK_SIZE - 1));
+                if (recordSize > remaining) {
+                    writeFully(out, ByteBuffer.allocate((int) remaining), position);
+                    position += remaining;
+                }
+                ByteBuffer length = ByteBuffer.allocate(Integer.BYTES).putInt(record.remaining()).flip();
+                writeFully(out, length, position);
+                writeFully(out, record.duplicate(), position + Integer.BYTES);
+                newIndex.putUnique(GadgetRecordCodec.readKey(record), position);
+                position += recordSize;
+
+                segmentMin = Math.min(segmentMin, published[i]);
+                segmentMax = Math.max(segmentMax, published[i]);
+                if (++segmentRecords == SEGMENT_RECORDS) {
+                    newSegments.add(new Segment(segmentStart, position, segmentMin, segmentMax, segmentRecords));
+                    segmentStart = position;
+                    segmentRecords = 0;
+                    segmentMin = Long.MAX_VALUE;
+                    segmentMax = Long.MIN_VALUE;
+                }
+            }
+            if (segmentRecords > 0) {
+                newSegments.add(new Segment(segmentStart, position, segmentMin, segmentMax, segmentRecords));
+            }
+            out.force(true);
+            newIndex.setIndexedLogSize(position);
+        }
+        rewriteSegments(tmpSegments, newSegments, newGeneration);
+
+        // 世代番号が揃わない状態で中断した場合は次回 open 時に再構築される
+        close();
+        Files.move(tmpSegments, segmentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(tmpIndex, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(tmpLog, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openFiles();
+        logger.info("Compacted archive to {} gadgets in {} segments", index.count(), segments.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        segments.clear();
+        if (index != null) {
+            index.close();
+            index = null;
+        }
+        if (logChannel != null) {
+            logChannel.close();
+            logChannel = null;
+        }
+    }
+
+    // ---- レコード読み出し ----
+
+    private boolean isLive(long offset, ByteBuffer record) {
+        return index.find(GadgetRecordCodec.readKey(record), this::keyAt) == offset;
+    }
+
+    private String keyAt(long offset) {
+        return GadgetRecordCodec.readKey(recordAt(offset));
+    }
+
+    /**
+     * 指定位置のレコード本体（長さフィールドを除く）を返す
+     */
+    private ByteBuffer recordAt(long offset) {
+        MappedByteBuffer chunk = chunk((int) (offset >>> CHUNK_SHIFT));
+        int pos = (int) (offset & (CHUNK_SIZE - 1));
+        int length = chunk.getInt(pos);
+        return chunk.slice(pos + Integer.BYTES, length);
+    }
+
+    private void forEachRecord(long start, long end, RecordVisitor visitor) {
+        long offset = start;
+        while (offset < end) {
+            if (isPaddingTail(offset)) {
+                offset = (offset | (CHUNK_SIZE - 1)) + 1;
+                continue;
+            }
+            MappedByteBuffer chunk = chunk((int) (offset >>> CHUNK_SHIFT));
+            int pos = (int) (offset & (CHUNK_SIZE - 1));
+            int length = chunk.getInt(pos);
+            if (length == PADDING) {
+                offset = (offset | (CHUNK_SIZE - 1)) + 1;
+                continue;
+            }
+            visitor.visit(offset, chunk.slice(pos + Integer.BYTES, length));
+            offset += Integer.BYTES + length;
+        }
+    }
+
+    /**
+     * チャンク末尾の長さフィールドも置けない余白（詰め物のみ）かどうか
+     */
+    private static boolean isPaddingTail(long offset) {
+        return CHUNK_SIZE - (offset & (CHUNK_SIZE - 1)) < Integer.BYTES;
+    }
+
+    private MappedByteBuffer chunk(int chunkIndex) {
+        while (chunks.size() <= chunkIndex) {
+            chunks.add(null);
+        }
+        MappedByteBuffer chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            long start = (long) chunkIndex << CHUNK_SHIFT;
+            long length = Math.min(CHUNK_SIZE, logSize - start);
+            try {
+                chunk = logChannel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to map archive chunk " + chunkIndex, e);
+            }
+            chunks.set(chunkIndex, chunk);
+        }
+        return chunk;
+    }
+
+    // ---- 復旧・セグメント管理 ----
+
+    /**
+     * インデックス未反映の末尾レコードを取り込み、書き込み途中のレコードは切り捨てる
+     */
+    private void recoverTail(long from) throws IOException {
+        long validEnd = from;
+        long offset = from;
+        ByteBuffer lengthBuf = ByteBuffer.allocate(Integer.BYTES);
+        while (offset + Integer.BYTES <= logSize) {
+            if (isPaddingTail(offset)) {
+                offset = (offset | (CHUNK_SIZE - 1)) + 1;
+                continue;
+            }
+            lengthBuf.clear();
+            logChannel.read(lengthBuf, offset);
+            int length = lengthBuf.getInt(0);
+            if (length == PADDING) {
+                offset = (offset | (CHUNK_SIZE - 1)) + 1;
+                continue;
+            }
+            if (length < 0 || offset + Integer.BYTES + length > logSize) {
+                break;
+            }
+            offset += Integer.BYTES + length;
+            validEnd = offset;
+        }
+        if (validEnd < logSize) {
+            logger.warn("Truncating {} incomplete bytes at end of {}", logSize - validEnd, logPath);
+            logChannel.truncate(validEnd);
+            logSize = validEnd;
+        }
+        chunks.clear();
+        if (validEnd == from) {
+            index.setIndexedLogSize(logSize);
+            return;
+        }
+
+        // SEGMENT_RECORDS 件ごとにセグメントを区切って登録
+        long[] segmentStart = {from};
+        long[] bounds = {Long.MAX_VALUE, Long.MIN_VALUE};
+        int[] records = {0};
+        List<Segment> recovered = new ArrayList<>();
+        List<long[]> entries = new ArrayList<>();
+        forEachRecord(from, validEnd, (recordOffset, record) -> {
+            long published = GadgetRecordCodec.readPublishedAt(record);
+            bounds[0] = Math.min(bounds[0], published);
+            bounds[1] = Math.max(bounds[1], published);
+            entries.add(new long[] {recordOffset});
+            if (++records[0] == SEGMENT_RECORDS) {
+                long end = recordOffset + Integer.BYTES + record.remaining();
+                recovered.add(new Segment(segmentStart[0], end, bounds[0], bounds[1], records[0]));
+                segmentStart[0] = end;
+                bounds[0] = Long.MAX_VALUE;
+                bounds[1] = Long.MIN_VALUE;
+                records[0] = 0;
+            }
+        });
+        if (records[0] > 0) {
+            recovered.add(new Segment(segmentStart[0], validEnd, bounds[0], bounds[1], records[0]));
+        }
+        index.ensureCapacity(entries.size());
+        for (long[] entry : entries) {
+            index.put(keyAt(entry[0]), entry[0], this::keyAt);
+        }
+        for (Segment segment : recovered) {
+            appendSegment(segment);
+        }
+        index.setIndexedLogSize(validEnd);
+        index.force();
+        logger.info("Recovered {} archived records from {}", entries.size(), logPath);
+    }
+
+    private boolean loadSegments() throws IOException {
+        segments.clear();
+        if (!Files.exists(segmentPath)) {
+            return false;
+        }
+        try (FileChannel ch = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+            if (ch.size() < FILE_HEADER_SIZE) {
+                return false;
+            }
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.getInt(0) != SEG_MAGIC || buf.getLong(8) != generation) {
+                return false;
+            }
+            buf.position(FILE_HEADER_SIZE);
+            while (buf.remaining() >= SEGMENT_ENTRY_SIZE) {
+                segments.add(new Segment(buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong()));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * セグメント書き込み後・インデックス更新前に中断した場合、その範囲は recoverTail で
+     * 取り込み直すため、インデックス未反映の範囲を含むセグメントを除く
+     */
+    private void dropUnindexedSegments(long indexedLogSize) throws IOException {
+        int before = segments.size();
+        while (!segments.isEmpty() && segments.get(segments.size() - 1).end() > indexedLogSize) {
+            segments.remove(segments.size() - 1);
+        }
+        if (segments.size() < before) {
+            logger.warn("Dropping {} unindexed segments from {}", before - segments.size(), segmentPath);
+            try (FileChannel ch = FileChannel.open(segmentPath, StandardOpenOption.WRITE)) {
+                ch.truncate(FILE_HEADER_SIZE + (long) segments.size() * SEGMENT_ENTRY_SIZE);
+                ch.force(false);
+            }
+        }
+    }
+
+    private void appendSegment(Segment segment) throws IOException {
+        try (FileChannel ch = FileChannel.open(segmentPath, StandardOpenOption.WRITE)) {
+            // 直前の異常終了で末尾に残った不完全なエントリは上書きする
+            long position = FILE_HEADER_SIZE + (long) segments.size() * SEGMENT_ENTRY_SIZE;
+            writeFully(ch, segment.toBuffer(), position);
+            ch.truncate(position + SEGMENT_ENTRY_SIZE);
+            ch.force(false);
+        }
+        segments.add(segment);
+    }
+
+    private static void rewriteSegments(Path path, List<Segment> entries, long generation) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(ch, SEG_MAGIC, generation);
+            long position = FILE_HEADER_SIZE;
+            for (Segment segment : entries) {
+                writeFully(ch, segment.toBuffer(), position);
+                position += SEGMENT_ENTRY_SIZE;
+            }
+            ch.force(false);
+        }
+    }
+
+    private static void writeHeader(FileChannel ch, int magic, long generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(magic).putInt(0).putLong(generation).flip();
+        writeFully(ch, header, 0);
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += ch.write(data, position);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(long offset, ByteBuffer record);
+    }
+
+    /**
+     * ログ上の連続区間と、その区間に含まれるレコードの公開日時の範囲
+     */
+    private record Segment(long start, long end, long minPublished, long maxPublished, long records) {
+        ByteBuffer toBuffer() {
+            return ByteBuffer.allocate(SEGMENT_ENTRY_SIZE)
+                    .putLong(start).putLong(end).putLong(minPublished).putLong(maxPublished).putLong(records)
+                    .flip();
+        }
+    }
+}
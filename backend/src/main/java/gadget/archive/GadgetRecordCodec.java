@@ -0,0 +1,101 @@
+package gadget.archive;
+
+import gadget.model.Category;
+import gadget.model.Gadget;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * アーカイブのレコード形式と Gadget を相互変換する
+ *
+ * レコード本体: publishedAtMillis(long) / price(long) / category序数(byte) / フラグ(byte) /
+ * sourceUrl, id, title, summary, priceText, imageUrl, sourceName（長さ付きUTF-8、-1はnull）
+ *
+ * 記事IDは取得ごとに変わりうるため、アーカイブのキーには記事URL（sourceUrl）を使用する。
+ */
+final class GadgetRecordCodec {
+    private static final int FLAG_TRENDING = 1;
+    // キー（sourceUrl）の開始位置（publishedAt + price + category + flags）
+    private static final int KEY_POSITION = Long.BYTES * 2 + 2;
+
+    private GadgetRecordCodec() {}
+
+    static byte[] encode(Gadget gadget) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(gadget.getPublishedAtMillis());
+        out.writeLong(gadget.getPriceValue());
+        out.writeByte(gadget.getCategoryEnum() == null ? -1 : gadget.getCategoryEnum().ordinal());
+        out.writeByte(gadget.isTrending() ? FLAG_TRENDING : 0);
+        writeString(out, gadget.getSourceUrl());
+        writeString(out, gadget.getId());
+        writeString(out, gadget.getTitle());
+        writeString(out, gadget.getSummary());
+        writeString(out, gadget.getPriceText());
+        writeString(out, gadget.getImageUrl());
+        writeString(out, gadget.getSourceName());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * レコード本体（position から limit まで）を Gadget に復元する
+     */
+    static Gadget decode(ByteBuffer record) {
+        ByteBuffer buf = record.duplicate();
+        Gadget gadget = new Gadget();
+        gadget.setPublishedAtMillis(buf.getLong());
+        long price = buf.getLong();
+        gadget.setPrice(price == Gadget.NO_PRICE ? null : price);
+        gadget.setCategoryEnum(Category.fromOrdinal(buf.get()));
+        gadget.setTrending((buf.get() & FLAG_TRENDING) != 0);
+        gadget.setSourceUrl(readString(buf));
+        gadget.setId(readString(buf));
+        gadget.setTitle(readString(buf));
+        gadget.setSummary(readString(buf));
+        gadget.setPriceText(readString(buf));
+        gadget.setImageUrl(readString(buf));
+        gadget.setSourceName(readString(buf));
+        return gadget;
+    }
+
+    /**
+     * レコード全体を復元せずに公開日時のみ読み取る
+     */
+    static long readPublishedAt(ByteBuffer record) {
+        return record.getLong(record.position());
+    }
+
+    /**
+     * レコード全体を復元せずにキー（sourceUrl）のみ読み取る
+     */
+    static String readKey(ByteBuffer record) {
+        ByteBuffer buf = record.duplicate();
+        buf.position(buf.position() + KEY_POSITION);
+        return readString(buf);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+package gadget.model;
+
+/**
+ * ガジェットのカテゴリ
+ *
+ * JSON上はラベル文字列（"Smart Home" など）で表現する。
+ */
+public enum Category {
+    MOBILE("Mobile"),
+    PC("PC"),
+    WEARABLE("Wearable"),
+    AUDIO("Audio"),
+    SMART_HOME("Smart Home"),
+    GAMING("Gaming");
+
+    private static final Category[] VALUES = values();
+
+    private final String label;
+
+    Category(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+
+    /**
+     * ラベル文字列からカテゴリを取得（該当なしの場合はnull）
+     */
+    public static Category fromLabel(String label) {
+        if (label == null) {
+            return null;
+        }
+        for (Category category : VALUES) {
+            if (category.label.equals(label)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 序数からカテゴリを取得（負数の場合はnull）
+     */
+    public static Category fromOrdinal(int ordinal) {
+        return ordinal < 0 ? null : VALUES[ordinal];
+    }
+}
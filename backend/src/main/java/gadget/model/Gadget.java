@@ -1,21 +1,30 @@
 package gadget.model;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.time.Instant;
 
 /**
  * ガジェット情報のデータモデル
+ *
+ * 大量の記事をメモリ上に保持できるよう、カテゴリは列挙型、配信元は SourceTable のID、
+ * 公開日時はエポックミリ秒、価格はプリミティブで保持する。
+ * JSON表現は GadgetTypeAdapter により従来と同じ形式を維持する。
  */
+@JsonAdapter(GadgetTypeAdapter.class)
 public class Gadget {
+    public static final long NO_PRICE = -1L;
+
     private String id;
     private String title;
     private String summary;
-    private Long price;
+    private long price = NO_PRICE;
     private String priceText;
-    private String category;
+    private Category category;
     private String imageUrl;
     private String sourceUrl;
-    private String sourceName;
-    private String publishedAt;
+    private int sourceId = SourceTable.NONE;
+    private long publishedAtMillis;
     private boolean isTrending;
     private String originalContent;
 
@@ -25,8 +34,8 @@ public class Gadget {
         this.id = id;
         this.title = title;
         this.sourceUrl = sourceUrl;
-        this.sourceName = sourceName;
-        this.publishedAt = Instant.now().toString();
+        this.sourceId = SourceTable.intern(sourceName);
+        this.publishedAtMillis = System.currentTimeMillis();
     }
 
     // Getters and Setters
@@ -39,14 +48,20 @@ public class Gadget {
     public String getSummary() { return summary; }
     public void setSummary(String summary) { this.summary = summary; }
 
-    public Long getPrice() { return price; }
-    public void setPrice(Long price) { this.price = price; }
+    public Long getPrice() { return price == NO_PRICE ? null : price; }
+    public void setPrice(Long price) { this.price = price == null ? NO_PRICE : price; }
+
+    public boolean hasPrice() { return price != NO_PRICE; }
+    public long getPriceValue() { return price; }
 
     public String getPriceText() { return priceText; }
     public void setPriceText(String priceText) { this.priceText = priceText; }
 
-    public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public String getCategory() { return category == null ? null : category.getLabel(); }
+    public void setCategory(String category) { this.category = Category.fromLabel(category); }
+
+    public Category getCategoryEnum() { return category; }
+    public void setCategoryEnum(Category category) { this.category = category; }
 
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
@@ -54,11 +69,16 @@ public class Gadget {
     public String getSourceUrl() { return sourceUrl; }
     public void setSourceUrl(String sourceUrl) { this.sourceUrl = sourceUrl; }
 
-    public String getSourceName() { return sourceName; }
-    public void setSourceName(String sourceName) { this.sourceName = sourceName; }
+    public String getSourceName() { return SourceTable.name(sourceId); }
+    public void setSourceName(String sourceName) { this.sourceId = SourceTable.intern(sourceName); }
 
-    public String getPublishedAt() { return publishedAt; }
-    public void setPublishedAt(String publishedAt) { this.publishedAt = publishedAt; }
+    public int getSourceId() { return sourceId; }
+
+    public String getPublishedAt() { return Instant.ofEpochMilli(publishedAtMillis).toString(); }
+    public void setPublishedAt(String publishedAt) { this.publishedAtMillis = Instant.parse(publishedAt).toEpochMilli(); }
+
+    public long getPublishedAtMillis() { return publishedAtMillis; }
+    public void setPublishedAtMillis(long publishedAtMillis) { this.publishedAtMillis = publishedAtMillis; }
 
     public boolean isTrending() { return isTrending; }
     public void setTrending(boolean trending) { isTrending = trending; }
@@ -66,13 +86,18 @@ public class Gadget {
     public String getOriginalContent() { return originalContent; }
     public void setOriginalContent(String originalContent) { this.originalContent = originalContent; }
 
+    /**
+     * AI加工が終わった後は元のHTMLを保持する必要がないため解放する
+     */
+    public void releaseOriginalContent() { this.originalContent = null; }
+
     @Override
     public String toString() {
         return "Gadget{" +
                 "id='" + id + '\'' +
                 ", title='" + title + '\'' +
-                ", category='" + category + '\'' +
-                ", price=" + price +
+                ", category='" + getCategory() + '\'' +
+                ", price=" + getPrice() +
                 '}';
     }
 }
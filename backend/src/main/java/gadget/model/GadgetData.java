@@ -9,6 +9,7 @@ import java.util.List;
 public class GadgetData {
     private List<Gadget> gadgets;
     private String lastUpdated;
+    private long version;
 
     public GadgetData() {
         this.lastUpdated = Instant.now().toString();
@@ -24,4 +25,7 @@ public class GadgetData {
 
     public String getLastUpdated() { return lastUpdated; }
     public void setLastUpdated(String lastUpdated) { this.lastUpdated = lastUpdated; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
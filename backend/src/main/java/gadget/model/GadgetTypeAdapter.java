@@ -0,0 +1,72 @@
+package gadget.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Gadget と従来形式のJSONを相互変換するアダプタ
+ *
+ * カテゴリはラベル文字列、公開日時はISO-8601文字列、価格は数値またはnullとして出力する。
+ */
+public class GadgetTypeAdapter extends TypeAdapter<Gadget> {
+
+    @Override
+    public void write(JsonWriter out, Gadget gadget) throws IOException {
+        if (gadget == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(gadget.getId());
+        out.name("title").value(gadget.getTitle());
+        out.name("summary").value(gadget.getSummary());
+        out.name("price").value(gadget.getPrice());
+        out.name("priceText").value(gadget.getPriceText());
+        out.name("category").value(gadget.getCategory());
+        out.name("imageUrl").value(gadget.getImageUrl());
+        out.name("sourceUrl").value(gadget.getSourceUrl());
+        out.name("sourceName").value(gadget.getSourceName());
+        out.name("publishedAt").value(gadget.getPublishedAt());
+        out.name("isTrending").value(gadget.isTrending());
+        out.name("originalContent").value(gadget.getOriginalContent());
+        out.endObject();
+    }
+
+    @Override
+    public Gadget read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Gadget gadget = new Gadget();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id" -> gadget.setId(in.nextString());
+                case "title" -> gadget.setTitle(in.nextString());
+                case "summary" -> gadget.setSummary(in.nextString());
+                case "price" -> gadget.setPrice(in.nextLong());
+                case "priceText" -> gadget.setPriceText(in.nextString());
+                case "category" -> gadget.setCategory(in.nextString());
+                case "imageUrl" -> gadget.setImageUrl(in.nextString());
+                case "sourceUrl" -> gadget.setSourceUrl(in.nextString());
+                case "sourceName" -> gadget.setSourceName(in.nextString());
+                case "publishedAt" -> gadget.setPublishedAt(in.nextString());
+                case "isTrending" -> gadget.setTrending(in.nextBoolean());
+                case "originalContent" -> gadget.setOriginalContent(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return gadget;
+    }
+}
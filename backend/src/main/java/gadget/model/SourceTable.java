@@ -0,0 +1,50 @@
+package gadget.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 配信元名のインターンテーブル
+ *
+ * 配信元名は数種類しかないため、各Gadgetは名前の代わりにテーブル上のIDを保持する。
+ */
+public final class SourceTable {
+    public static final int NONE = -1;
+
+    private static final Map<String, Integer> idsByName = new HashMap<>();
+    private static final List<String> names = new ArrayList<>();
+
+    private SourceTable() {}
+
+    /**
+     * 配信元名を登録してIDを返す（登録済みの場合は既存のID）
+     */
+    public static synchronized int intern(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        Integer id = idsByName.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            idsByName.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * IDから配信元名を取得
+     */
+    public static synchronized String name(int id) {
+        return id == NONE ? null : names.get(id);
+    }
+
+    /**
+     * 登録済みの配信元数
+     */
+    public static synchronized int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,242 @@
+package gadget.price;
+
+import gadget.model.Gadget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * タイトルと記事本文から価格をルールベースで抽出するクラス
+ *
+ * 「税込 9万9800円」「¥99,800」「12万円前後」「九万九千八百円」などの表記に対応し、
+ * 抽出結果の信頼度が十分に高い場合は Gemini を使わずに価格を確定する。
+ */
+public class PriceExtractor {
+    private static final Logger logger = LoggerFactory.getLogger(PriceExtractor.class);
+
+    /** この信頼度以上の場合はローカルで価格を確定する */
+    public static final double ACCEPT_CONFIDENCE = 0.8;
+
+    private static final long MIN_PRICE = 100;
+    private static final long MAX_PRICE = 10_000_000;
+    private static final int CONTEXT_CHARS = 8;
+
+    private static final String NUMERAL = "[0-9０-９,，.．〇零一二三四五六七八九十百千万億]";
+    private static final Pattern YEN_SUFFIX = Pattern.compile("(" + NUMERAL + "+)\\s*円");
+    private static final Pattern YEN_PREFIX = Pattern.compile("[¥￥]\\s*([0-9０-９][0-9０-９,，]*)");
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]+>");
+    private static final Pattern YEN_ENTITY = Pattern.compile("&(yen|#165|#xA5);", Pattern.CASE_INSENSITIVE);
+    private static final Pattern HTML_ENTITY = Pattern.compile("&[a-zA-Z#0-9]+;");
+    // 「数十万円」「何千円」など概数を表す語の直後にある単位は金額ではない
+    private static final String INDEFINITE_NUMERAL = "数何幾";
+
+    private static final Pattern TAX_INCLUDED = Pattern.compile("税込");
+    private static final Pattern TAX_EXCLUDED = Pattern.compile("税別|税抜|本体価格");
+    private static final Pattern APPROXIMATE_BEFORE = Pattern.compile("約|およそ|最大|最低");
+    private static final Pattern APPROXIMATE_AFTER = Pattern.compile("^\\s*(前後|程度|台|から|～|〜|以下|以上|超|弱|強)");
+    // 製品価格ではない金額（月額・割引額など）
+    private static final Pattern NOT_PRICE_BEFORE = Pattern.compile("月額|月々|毎月|年額|ポイント|割引|値下げ|キャッシュバック|送料|差額|売上|市場");
+    private static final Pattern NOT_PRICE_AFTER = Pattern.compile("^\\s*(引き|オフ|OFF|off|分|相当|還元|/月|／月|の値下げ|安く|高く)");
+
+    private int processed;
+    private int resolved;
+
+    /**
+     * ガジェットに価格を抽出して設定する（信頼度が ACCEPT_CONFIDENCE 未満の場合は設定しない）
+     */
+    public Result apply(Gadget gadget) {
+        Result result = extract(gadget.getTitle(), gadget.getOriginalContent());
+        processed++;
+        if (result.isConfident()) {
+            gadget.setPrice(result.price());
+            gadget.setPriceText(result.priceText());
+            resolved++;
+        }
+        return result;
+    }
+
+    /**
+     * タイトルと本文（HTML可）から価格を抽出
+     */
+    public Result extract(String title, String content) {
+        String text = toPlainText(title) + "\n" + toPlainText(content);
+
+        List<Candidate> candidates = new ArrayList<>();
+        collect(YEN_PREFIX.matcher(text), text, candidates);
+        collect(YEN_SUFFIX.matcher(text), text, candidates);
+        if (candidates.isEmpty()) {
+            return Result.NONE;
+        }
+
+        Set<Long> distinct = new LinkedHashSet<>();
+        for (Candidate candidate : candidates) {
+            distinct.add(candidate.value());
+        }
+        // 出現順で最初の候補（タイトル内の価格が優先される）
+        Candidate first = candidates.stream()
+                .min((a, b) -> Integer.compare(a.position(), b.position()))
+                .orElseThrow();
+
+        double confidence = 0.8;
+        if (candidates.stream().anyMatch(c -> c.value() == first.value() && c.taxIncluded())) {
+            confidence += 0.15;
+        }
+        if (first.approximate()) {
+            confidence -= 0.3;
+        }
+        if (first.taxExcluded()) {
+            confidence -= 0.2;
+        }
+        if (distinct.size() > 1) {
+            // 複数モデル・複数価格が混在している場合はAIに任せる
+            confidence = Math.min(confidence, 0.4);
+        }
+
+        String priceText = (first.approximate() ? "約" : "") + "¥" + String.format("%,d", first.value());
+        return new Result(first.value(), priceText, Math.max(0, Math.min(1, confidence)));
+    }
+
+    /**
+     * ローカルで確定できた割合
+     */
+    public double resolvedRatio() {
+        return processed == 0 ? 0 : (double) resolved / processed;
+    }
+
+    public void logSummary() {
+        logger.info("Resolved prices locally for {}/{} gadgets ({}%)", resolved, processed,
+                String.format("%.1f", resolvedRatio() * 100));
+    }
+
+    private void collect(Matcher matcher, String text, List<Candidate> candidates) {
+        while (matcher.find()) {
+            if (!isDefiniteNumber(matcher.group(1), text, matcher.start(1))) {
+                continue;
+            }
+            long value = parseJapaneseNumber(matcher.group(1));
+            if (value < MIN_PRICE || value > MAX_PRICE) {
+                continue;
+            }
+            String before = text.substring(Math.max(0, matcher.start() - CONTEXT_CHARS), matcher.start());
+            String after = text.substring(matcher.end(), Math.min(text.length(), matcher.end() + CONTEXT_CHARS));
+            if (NOT_PRICE_BEFORE.matcher(before).find() || NOT_PRICE_AFTER.matcher(after).find()) {
+                continue;
+            }
+            String around = before + after;
+            candidates.add(new Candidate(
+                    value,
+                    matcher.start(),
+                    TAX_INCLUDED.matcher(around).find(),
+                    TAX_EXCLUDED.matcher(around).find(),
+                    APPROXIMATE_BEFORE.matcher(before).find() || APPROXIMATE_AFTER.matcher(after).find()));
+        }
+    }
+
+    /**
+     * 数字を含み、概数を表す語に続いていない数値表記か判定（「千円」「数十万円」などを除外）
+     */
+    private static boolean isDefiniteNumber(String number, String text, int start) {
+        if (start > 0 && INDEFINITE_NUMERAL.indexOf(text.charAt(start - 1)) >= 0) {
+            return false;
+        }
+        return number.chars().anyMatch(c -> digitValue((char) c) >= 0);
+    }
+
+    /**
+     * HTMLタグと文字実体参照を取り除いたテキストに変換（円記号の実体参照は「¥」に置き換える）
+     */
+    public static String toPlainText(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = HTML_TAG.matcher(text).replaceAll(" ");
+        stripped = YEN_ENTITY.matcher(stripped).replaceAll("¥");
+        return HTML_ENTITY.matcher(stripped).replaceAll(" ");
+    }
+
+    /**
+     * 算用数字・漢数字・万/億などの単位が混在した数値表記を解析
+     * 例: "9万9800" → 99800, "九万九千八百" → 99800, "1.5万" → 15000, "99,800" → 99800
+     */
+    static long parseJapaneseNumber(String text) {
+        double total = 0;
+        double section = 0;   // 万未満の部分
+        StringBuilder digits = new StringBuilder();
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int digit = digitValue(c);
+            if (digit >= 0) {
+                digits.append((char) ('0' + digit));
+            } else if (c == '.' || c == '．') {
+                digits.append('.');
+            } else if (c == '十' || c == '百' || c == '千') {
+                double value = digits.isEmpty() ? 1 : parseDigits(digits);
+                section += value * (c == '十' ? 10 : c == '百' ? 100 : 1000);
+                digits.setLength(0);
+            } else if (c == '万' || c == '億') {
+                section += parseDigits(digits);
+                total += section * (c == '万' ? 10_000 : 100_000_000);
+                section = 0;
+                digits.setLength(0);
+            }
+            // カンマ等の区切りは無視
+        }
+        section += parseDigits(digits);
+        return Math.round(total + section);
+    }
+
+    private static int digitValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= '０' && c <= '９') return c - '０';
+        return switch (c) {
+            case '〇', '零' -> 0;
+            case '一' -> 1;
+            case '二' -> 2;
+            case '三' -> 3;
+            case '四' -> 4;
+            case '五' -> 5;
+            case '六' -> 6;
+            case '七' -> 7;
+            case '八' -> 8;
+            case '九' -> 9;
+            default -> -1;
+        };
+    }
+
+    private static double parseDigits(StringBuilder digits) {
+        if (digits.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(digits.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private record Candidate(long value, int position, boolean taxIncluded, boolean taxExcluded,
+            boolean approximate) {
+    }
+
+    /**
+     * 抽出結果
+     *
+     * @param price      価格（円、抽出できない場合はnull）
+     * @param priceText  表示用テキスト
+     * @param confidence 信頼度（0〜1）
+     */
+    public record Result(Long price, String priceText, double confidence) {
+        public static final Result NONE = new Result(null, null, 0);
+
+        public boolean isConfident() {
+            return price != null && confidence >= ACCEPT_CONFIDENCE;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package gadget.publish;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import gadget.model.Gadget;
+import gadget.model.GadgetData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * データのバージョン管理と差分ファイルの出力を行うクラス
+ *
+ * 出力ごとに単調増加するバージョン番号を付与し、直近 HISTORY_SIZE 世代の
+ * 各バージョンから現在のバージョンへの差分（追加・更新・削除）を出力する。
+ * クライアントは gadgets-manifest.json を取得し、手元のバージョンに対応する差分のみを取得する。
+ */
+public class DeltaPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(DeltaPublisher.class);
+    private static final int HISTORY_SIZE = 10;
+    private static final String MANIFEST_FILE = "gadgets-manifest.json";
+    private static final String FULL_FILE = "gadgets.json";
+    private static final String DELTA_DIR = "deltas";
+    private static final Pattern SNAPSHOT_PATTERN = Pattern.compile("v(\\d+)\\.json");
+
+    private final Path outputDir;
+    private final Path snapshotDir;
+    private final Gson gson = new Gson();
+    private final Gson prettyGson = new GsonBuilder().setPrettyPrinting().create();
+    private final TreeMap<Long, Path> snapshots = new TreeMap<>();
+
+    /**
+     * @param outputDir   gadgets.json の出力ディレクトリ
+     * @param snapshotDir 過去バージョンのスナップショット（ID → 内容ハッシュ）の保存先
+     */
+    public DeltaPublisher(Path outputDir, Path snapshotDir) throws IOException {
+        this.outputDir = outputDir;
+        this.snapshotDir = snapshotDir;
+        Files.createDirectories(snapshotDir);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(snapshotDir, "v*.json")) {
+            for (Path path : stream) {
+                Matcher matcher = SNAPSHOT_PATTERN.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    snapshots.put(Long.parseLong(matcher.group(1)), path);
+                }
+            }
+        }
+    }
+
+    /**
+     * 次に出力するバージョン番号
+     */
+    public long nextVersion() {
+        return snapshots.isEmpty() ? 1 : snapshots.lastKey() + 1;
+    }
+
+    /**
+     * 出力済みの gadgets.json に対応するスナップショット・差分・マニフェストを出力する
+     */
+    public void publish(GadgetData data) throws IOException {
+        long version = data.getVersion();
+        Map<String, String> current = new LinkedHashMap<>();
+        Map<String, Gadget> byId = new LinkedHashMap<>();
+        for (Gadget gadget : data.getGadgets()) {
+            current.put(gadget.getId(), contentHash(gson.toJson(gadget).getBytes(StandardCharsets.UTF_8)));
+            byId.put(gadget.getId(), gadget);
+        }
+
+        // 古い差分は現在のバージョンへ到達できないため全て削除して作り直す
+        Path deltaDir = outputDir.resolve(DELTA_DIR);
+        Files.createDirectories(deltaDir);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(deltaDir, "gadgets-delta-*.json")) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+
+        Map<String, String> deltaFiles = new LinkedHashMap<>();
+        for (Map.Entry<Long, Path> entry : snapshots.descendingMap().entrySet()) {
+            long from = entry.getKey();
+            if (from >= version || deltaFiles.size() >= HISTORY_SIZE) {
+                continue;
+            }
+            Map<String, String> previous = readSnapshot(entry.getValue());
+            if (previous == null) {
+                continue;
+            }
+            Delta delta = diff(from, version, previous, current, byId);
+            String fileName = "gadgets-delta-" + from + "-" + version + ".json";
+            writeJson(deltaDir.resolve(fileName), delta, gson);
+            deltaFiles.put(String.valueOf(from), DELTA_DIR + "/" + fileName);
+            logger.info("Delta v{} -> v{}: +{} ~{} -{}", from, version,
+                    delta.added.size(), delta.updated.size(), delta.removed.size());
+        }
+
+        // 現在のバージョンのスナップショットを保存し、保持数を超えた古いものを削除
+        Path snapshotPath = snapshotDir.resolve("v" + version + ".json");
+        writeJson(snapshotPath, current, gson);
+        snapshots.put(version, snapshotPath);
+        while (snapshots.size() > HISTORY_SIZE + 1) {
+            Files.deleteIfExists(snapshots.pollFirstEntry().getValue());
+        }
+
+        JsonObject manifest = new JsonObject();
+        manifest.addProperty("version", version);
+        manifest.addProperty("etag", "\"" + contentHash(Files.readAllBytes(outputDir.resolve(FULL_FILE))) + "\"");
+        manifest.addProperty("lastUpdated", data.getLastUpdated());
+        manifest.addProperty("count", data.getGadgets().size());
+        manifest.addProperty("full", FULL_FILE);
+        manifest.add("deltas", gson.toJsonTree(deltaFiles));
+        writeJson(outputDir.resolve(MANIFEST_FILE), manifest, prettyGson);
+
+        logger.info("Published data version {} with {} deltas", version, deltaFiles.size());
+    }
+
+    private Delta diff(long from, long to, Map<String, String> previous, Map<String, String> current,
+            Map<String, Gadget> byId) {
+        Delta delta = new Delta(from, to);
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            String previousHash = previous.get(entry.getKey());
+            if (previousHash == null) {
+                delta.added.add(byId.get(entry.getKey()));
+            } else if (!previousHash.equals(entry.getValue())) {
+                delta.updated.add(byId.get(entry.getKey()));
+            }
+        }
+        for (String id : previous.keySet()) {
+            if (!current.containsKey(id)) {
+                delta.removed.add(id);
+            }
+        }
+        return delta;
+    }
+
+    private Map<String, String> readSnapshot(Path path) {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, new TypeToken<Map<String, String>>() {}.getType());
+        } catch (Exception e) {
+            logger.warn("Failed to read snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeJson(Path path, Object value, Gson gson) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            gson.toJson(value, writer);
+        }
+    }
+
+    private static String contentHash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * バージョン間の差分
+     */
+    private static class Delta {
+        private final long fromVersion;
+        private final long toVersion;
+        private final List<Gadget> added = new ArrayList<>();
+        private final List<Gadget> updated = new ArrayList<>();
+        private final List<String> removed = new ArrayList<>();
+
+        Delta(long fromVersion, long toVersion) {
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package gadget.rss;
+
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RSSフィード一覧を設定ファイルから読み込むレジストリ
+ *
+ * 設定ファイルのパスが指定されない場合はクラスパス上の feeds.json を使用する。
+ */
+public class FeedRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(FeedRegistry.class);
+    private static final String DEFAULT_RESOURCE = "/feeds.json";
+
+    // 設定ファイルに defaults が無い場合の既定値
+    private static final FeedSource BUILTIN_DEFAULTS = new FeedSource(null, null, true, 60, 4320, 3);
+
+    private final List<FeedSource> sources;
+
+    private FeedRegistry(List<FeedSource> sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * 設定ファイルからフィード一覧を読み込む
+     *
+     * @param configPath 設定ファイルのパス（nullの場合はクラスパスの feeds.json）
+     */
+    public static FeedRegistry load(String configPath) throws IOException {
+        FeedConfig config;
+        if (configPath != null && !configPath.isEmpty()) {
+            Path path = Paths.get(configPath).toAbsolutePath();
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                config = new Gson().fromJson(reader, FeedConfig.class);
+            }
+            logger.info("Loaded feed config from {}", path);
+            resolveRelativeUrls(config, path.getParent());
+        } else {
+            try (InputStream in = FeedRegistry.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+                if (in == null) {
+                    throw new IOException("Feed config not found on classpath: " + DEFAULT_RESOURCE);
+                }
+                config = new Gson().fromJson(new InputStreamReader(in, StandardCharsets.UTF_8), FeedConfig.class);
+            }
+        }
+        return fromConfig(config);
+    }
+
+    /**
+     * スキームの無いURLは設定ファイルからの相対パスとして file: URL に変換する（ローカルのフィードでの試験実行用）
+     */
+    private static void resolveRelativeUrls(FeedConfig config, Path baseDir) {
+        if (config == null || config.feeds == null) {
+            return;
+        }
+        for (int i = 0; i < config.feeds.size(); i++) {
+            FeedSource source = config.feeds.get(i);
+            if (source != null && source.url() != null && !source.url().isEmpty() && !source.url().contains(":")) {
+                String url = baseDir.resolve(source.url()).toUri().toString();
+                config.feeds.set(i, new FeedSource(source.name(), url, source.enabled(),
+                        source.minIntervalMinutes(), source.maxIntervalMinutes(), source.targetItemsPerFetch()));
+            }
+        }
+    }
+
+    private static FeedRegistry fromConfig(FeedConfig config) {
+        if (config == null || config.feeds == null) {
+            return new FeedRegistry(List.of());
+        }
+
+        FeedSource defaults = config.defaults != null
+                ? config.defaults.withDefaults(BUILTIN_DEFAULTS)
+                : BUILTIN_DEFAULTS;
+
+        // URLで重複を除外（後勝ち）
+        Map<String, FeedSource> byUrl = new LinkedHashMap<>();
+        for (FeedSource source : config.feeds) {
+            if (source == null || source.url() == null || source.url().isEmpty()) {
+                continue;
+            }
+            FeedSource resolved = source.withDefaults(defaults);
+            if (resolved.minIntervalMinutes() > resolved.maxIntervalMinutes()) {
+                logger.warn("Feed {} has minInterval > maxInterval, using maxInterval for both", source.name());
+                resolved = new FeedSource(resolved.name(), resolved.url(), resolved.enabled(),
+                        resolved.maxIntervalMinutes(), resolved.maxIntervalMinutes(), resolved.targetItemsPerFetch());
+            }
+            byUrl.put(resolved.url(), resolved);
+        }
+
+        List<FeedSource> enabled = new ArrayList<>();
+        for (FeedSource source : byUrl.values()) {
+            if (source.isEnabled()) {
+                enabled.add(source);
+            }
+        }
+        return new FeedRegistry(List.copyOf(enabled));
+    }
+
+    /**
+     * 有効なフィードソース一覧
+     */
+    public List<FeedSource> getSources() {
+        return sources;
+    }
+
+    /**
+     * feeds.json のルート構造
+     */
+    private static class FeedConfig {
+        private FeedSource defaults;
+        private List<FeedSource> feeds;
+    }
+}
@@ -0,0 +1,223 @@
+package gadget.rss;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * フィードごとの観測履歴に基づいて取得タイミングを決定するスケジューラ
+ *
+ * 新着のガジェット記事が多いフィードは短い間隔で、更新の少ないフィードや
+ * ガジェット関連記事の少ないフィードは長い間隔で取得する。
+ * 取得コストがフィード数ではなく新着記事数に比例するようにするのが目的。
+ */
+public class FeedScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(FeedScheduler.class);
+    private static final double EMA_ALPHA = 0.3;
+    // cronの起動遅延を吸収するための猶予
+    private static final Duration DUE_TOLERANCE = Duration.ofMinutes(10);
+
+    private final Path stateFile;
+    private final Map<String, FeedStats> statsByUrl;
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    private FeedScheduler(Path stateFile, Map<String, FeedStats> statsByUrl) {
+        this.stateFile = stateFile;
+        this.statsByUrl = statsByUrl;
+    }
+
+    /**
+     * 状態ファイルから観測履歴を読み込む（存在しない場合は空の状態で開始）
+     */
+    public static FeedScheduler load(Path stateFile) {
+        Map<String, FeedStats> stats = new TreeMap<>();
+        if (stateFile != null && Files.exists(stateFile)) {
+            try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+                Map<String, FeedStats> loaded = new Gson().fromJson(reader,
+                        new TypeToken<Map<String, FeedStats>>() {}.getType());
+                if (loaded != null) {
+                    stats.putAll(loaded);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to load feed stats from {}: {}", stateFile, e.getMessage());
+            }
+        }
+        return new FeedScheduler(stateFile, stats);
+    }
+
+    /**
+     * 観測履歴を状態ファイルに保存
+     */
+    public void save() throws IOException {
+        if (stateFile == null) {
+            return;
+        }
+        if (stateFile.getParent() != null) {
+            Files.createDirectories(stateFile.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(stateFile, StandardCharsets.UTF_8)) {
+            gson.toJson(statsByUrl, writer);
+        }
+    }
+
+    /**
+     * 指定時刻にフィードを取得すべきか判定
+     */
+    public boolean isDue(FeedSource source, Instant now) {
+        FeedStats stats = statsByUrl.get(source.url());
+        if (stats == null || stats.getNextFetchAt() == null) {
+            return true;
+        }
+        Instant next = Instant.parse(stats.getNextFetchAt());
+        return !next.isAfter(now.plus(DUE_TOLERANCE));
+    }
+
+    FeedStats getStats(FeedSource source) {
+        return statsByUrl.get(source.url());
+    }
+
+    /**
+     * 前回までに確認済みの最新公開日時（未取得の場合はnull）
+     */
+    public Instant getLastSeenPublishedAt(FeedSource source) {
+        FeedStats stats = statsByUrl.get(source.url());
+        if (stats == null || stats.getLastSeenPublishedAt() == null) {
+            return null;
+        }
+        return Instant.parse(stats.getLastSeenPublishedAt());
+    }
+
+    /**
+     * 取得結果を履歴に反映し、次回取得時刻を決定する
+     */
+    public void recordFetch(FeedSource source, Instant now, FeedObservation observation) {
+        FeedStats stats = statsByUrl.computeIfAbsent(source.url(), FeedStats::new);
+        stats.setConsecutiveFailures(0);
+        Instant lastSeen = stats.getLastSeenPublishedAt() != null
+                ? Instant.parse(stats.getLastSeenPublishedAt())
+                : null;
+
+        // 公開間隔の観測
+        double observedInterval = observeInterval(observation, lastSeen, now);
+        if (observedInterval > 0) {
+            if (stats.getAvgPublishIntervalMinutes() <= 0) {
+                stats.setAvgPublishIntervalMinutes(observedInterval);
+            } else if (observation.newEntries() > 0 || observedInterval > stats.getAvgPublishIntervalMinutes()) {
+                // 新着なしの場合は「少なくともこの間隔以上」という観測なので、平均を伸ばす方向にのみ反映
+                stats.setAvgPublishIntervalMinutes(ema(stats.getAvgPublishIntervalMinutes(), observedInterval));
+            }
+        }
+
+        // ガジェット関連記事率の観測
+        if (observation.newEntries() > 0) {
+            double yield = (double) observation.relevantEntries() / observation.newEntries();
+            stats.setAvgYield(stats.getFetchCount() == 0 ? yield : ema(stats.getAvgYield(), yield));
+        }
+
+        if (observation.relevantEntries() == 0) {
+            stats.setConsecutiveEmptyFetches(stats.getConsecutiveEmptyFetches() + 1);
+        } else {
+            stats.setConsecutiveEmptyFetches(0);
+        }
+
+        if (observation.newestPublishedAt() != null
+                && (lastSeen == null || observation.newestPublishedAt().isAfter(lastSeen))) {
+            stats.setLastSeenPublishedAt(observation.newestPublishedAt().toString());
+        }
+
+        long interval = nextIntervalMinutes(source, stats);
+        stats.setCurrentIntervalMinutes(interval);
+        stats.setFetchCount(stats.getFetchCount() + 1);
+        stats.setLastFetchedAt(now.toString());
+        stats.setNextFetchAt(now.plus(Duration.ofMinutes(interval)).toString());
+
+        logger.debug("Feed {}: interval={}min, yield={}, next={}", source.name(),
+                interval, String.format("%.2f", stats.getAvgYield()), stats.getNextFetchAt());
+    }
+
+    /**
+     * 取得失敗時は連続失敗回数に応じて最小間隔の2倍、4倍…と最大間隔まで再試行を遅らせる
+     */
+    public void recordFailure(FeedSource source, Instant now) {
+        FeedStats stats = statsByUrl.computeIfAbsent(source.url(), FeedStats::new);
+        int failures = stats.getConsecutiveFailures() + 1;
+        long retry = (long) Math.min(source.maxIntervalMinutes(),
+                source.minIntervalMinutes() * Math.pow(2, Math.min(failures, 30)));
+        stats.setConsecutiveFailures(failures);
+        stats.setLastFetchedAt(now.toString());
+        stats.setNextFetchAt(now.plus(Duration.ofMinutes(retry)).toString());
+        logger.debug("Feed {}: {} consecutive failures, retry in {}min", source.name(), failures, retry);
+    }
+
+    private double observeInterval(FeedObservation observation, Instant lastSeen, Instant now) {
+        int newEntries = observation.newEntries();
+        if (newEntries == 0) {
+            return lastSeen != null ? minutesBetween(lastSeen, now) : 0;
+        }
+        if (lastSeen != null && observation.newestPublishedAt() != null) {
+            return minutesBetween(lastSeen, observation.newestPublishedAt()) / newEntries;
+        }
+        if (newEntries >= 2 && observation.oldestPublishedAt() != null && observation.newestPublishedAt() != null) {
+            return minutesBetween(observation.oldestPublishedAt(), observation.newestPublishedAt()) / (newEntries - 1);
+        }
+        return 0;
+    }
+
+    /**
+     * 1回の取得で targetItemsPerFetch 件のガジェット記事が得られる間隔を算出
+     */
+    private long nextIntervalMinutes(FeedSource source, FeedStats stats) {
+        long min = source.minIntervalMinutes();
+        long max = source.maxIntervalMinutes();
+
+        double relevantPerMinute = stats.getAvgPublishIntervalMinutes() > 0
+                ? stats.getAvgYield() / stats.getAvgPublishIntervalMinutes()
+                : 0;
+
+        long interval;
+        if (relevantPerMinute > 0) {
+            interval = Math.round(source.targetItemsPerFetch() / relevantPerMinute);
+        } else {
+            // 新着が観測できない場合は前回間隔の2倍に後退
+            interval = Math.max(min, stats.getCurrentIntervalMinutes()) * 2;
+        }
+        // 連続して空振りしているフィードはさらに後退
+        if (stats.getConsecutiveEmptyFetches() > 1) {
+            interval = Math.max(interval, stats.getCurrentIntervalMinutes() * 2);
+        }
+        return Math.max(min, Math.min(max, interval));
+    }
+
+    private static double ema(double current, double observed) {
+        return current * (1 - EMA_ALPHA) + observed * EMA_ALPHA;
+    }
+
+    private static double minutesBetween(Instant from, Instant to) {
+        return Math.max(0, Duration.between(from, to).toSeconds() / 60.0);
+    }
+
+    /**
+     * 1回のフィード取得で観測された値
+     *
+     * @param newEntries        前回取得以降に公開された記事数
+     * @param relevantEntries   そのうちガジェット関連と判定された記事数
+     * @param oldestPublishedAt 新着記事の最古の公開日時
+     * @param newestPublishedAt 新着記事の最新の公開日時
+     */
+    public record FeedObservation(int newEntries, int relevantEntries,
+            Instant oldestPublishedAt, Instant newestPublishedAt) {
+    }
+}
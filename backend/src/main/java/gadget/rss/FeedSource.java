@@ -0,0 +1,37 @@
+package gadget.rss;
+
+/**
+ * RSSフィードソース情報
+ *
+ * 設定ファイル（feeds.json）の1エントリに対応する。
+ * オプション項目が未指定（null）の場合は FeedRegistry がデフォルト値で補完する。
+ */
+public record FeedSource(
+        String name,
+        String url,
+        Boolean enabled,
+        Integer minIntervalMinutes,
+        Integer maxIntervalMinutes,
+        Integer targetItemsPerFetch) {
+
+    public FeedSource(String name, String url) {
+        this(name, url, true, null, null, null);
+    }
+
+    public boolean isEnabled() {
+        return enabled == null || enabled;
+    }
+
+    /**
+     * 未指定のオプションをデフォルト値で補完したコピーを返す
+     */
+    FeedSource withDefaults(FeedSource defaults) {
+        return new FeedSource(
+                name,
+                url,
+                isEnabled(),
+                minIntervalMinutes != null ? minIntervalMinutes : defaults.minIntervalMinutes(),
+                maxIntervalMinutes != null ? maxIntervalMinutes : defaults.maxIntervalMinutes(),
+                targetItemsPerFetch != null ? targetItemsPerFetch : defaults.targetItemsPerFetch());
+    }
+}
@@ -0,0 +1,56 @@
+package gadget.rss;
+
+/**
+ * フィードごとの観測履歴（公開間隔・ガジェット記事率）
+ *
+ * 実行間で永続化され、FeedScheduler が次回取得時刻の算出に使用する。
+ */
+public class FeedStats {
+    private String url;
+    private String lastFetchedAt;
+    private String lastSeenPublishedAt;
+    private String nextFetchAt;
+    private double avgPublishIntervalMinutes; // 0 は未観測
+    private double avgYield = 1.0;            // 新着記事のうちガジェット関連記事の割合
+    private long currentIntervalMinutes;
+    private int fetchCount;
+    private int consecutiveEmptyFetches;
+    private int consecutiveFailures;
+
+    public FeedStats() {}
+
+    public FeedStats(String url) {
+        this.url = url;
+    }
+
+    // Getters and Setters
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getLastFetchedAt() { return lastFetchedAt; }
+    public void setLastFetchedAt(String lastFetchedAt) { this.lastFetchedAt = lastFetchedAt; }
+
+    public String getLastSeenPublishedAt() { return lastSeenPublishedAt; }
+    public void setLastSeenPublishedAt(String lastSeenPublishedAt) { this.lastSeenPublishedAt = lastSeenPublishedAt; }
+
+    public String getNextFetchAt() { return nextFetchAt; }
+    public void setNextFetchAt(String nextFetchAt) { this.nextFetchAt = nextFetchAt; }
+
+    public double getAvgPublishIntervalMinutes() { return avgPublishIntervalMinutes; }
+    public void setAvgPublishIntervalMinutes(double avgPublishIntervalMinutes) { this.avgPublishIntervalMinutes = avgPublishIntervalMinutes; }
+
+    public double getAvgYield() { return avgYield; }
+    public void setAvgYield(double avgYield) { this.avgYield = avgYield; }
+
+    public long getCurrentIntervalMinutes() { return currentIntervalMinutes; }
+    public void setCurrentIntervalMinutes(long currentIntervalMinutes) { this.currentIntervalMinutes = currentIntervalMinutes; }
+
+    public int getFetchCount() { return fetchCount; }
+    public void setFetchCount(int fetchCount) { this.fetchCount = fetchCount; }
+
+    public int getConsecutiveEmptyFetches() { return consecutiveEmptyFetches; }
+    public void setConsecutiveEmptyFetches(int consecutiveEmptyFetches) { this.consecutiveEmptyFetches = consecutiveEmptyFetches; }
+
+    public int getConsecutiveFailures() { return consecutiveFailures; }
+    public void setConsecutiveFailures(int consecutiveFailures) { this.consecutiveFailures = consecutiveFailures; }
+}
@@ -1,5 +1,6 @@
 package gadget.rss;
 
+import com.rometools.rome.feed.synd.SyndEnclosure;
 import com.rometools.rome.feed.synd.SyndEntry;
 import com.rometools.rome.feed.synd.SyndFeed;
 import com.rometools.rome.io.SyndFeedInput;
@@ -10,8 +11,12 @@ import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,65 +26,97 @@ import java.util.UUID;
 public class RssFetcher {
     private static final Logger logger = LoggerFactory.getLogger(RssFetcher.class);
 
-    // テック系RSSフィード一覧
-    private static final List<FeedSource> FEED_SOURCES = List.of(
-            new FeedSource("ITmedia Mobile", "https://rss.itmedia.co.jp/rss/2.0/mobile.xml"),
-            new FeedSource("ITmedia PC USER", "https://rss.itmedia.co.jp/rss/2.0/pcuser.xml"),
-            new FeedSource("CNET Japan", "http://feeds.japan.cnet.com/rss/cnet/all.rdf"),
-            new FeedSource("Impress Watch", "https://www.watch.impress.co.jp/data/rss/1.0/ipw/feed.rdf"),
-            new FeedSource("PC Watch", "https://pc.watch.impress.co.jp/data/rss/1.0/pcw/feed.rdf"),
-            new FeedSource("AV Watch", "https://av.watch.impress.co.jp/data/rss/1.0/avw/feed.rdf"),
-            new FeedSource("ケータイ Watch", "https://k-tai.watch.impress.co.jp/data/rss/1.0/ktw/feed.rdf"));
+    private final List<FeedSource> feedSources;
+    private final FeedScheduler scheduler;
+
+    public RssFetcher(List<FeedSource> feedSources, FeedScheduler scheduler) {
+        this.feedSources = feedSources;
+        this.scheduler = scheduler;
+    }
 
     /**
-     * 全てのRSSフィードからガジェット情報を取得
+     * 取得タイミングに達したRSSフィードから、前回取得以降に公開されたガジェット情報を取得
      */
     public List<Gadget> fetchAll() {
         List<Gadget> allGadgets = new ArrayList<>();
+        Instant now = Instant.now();
+        int skipped = 0;
 
-        for (FeedSource source : FEED_SOURCES) {
+        for (FeedSource source : feedSources) {
+            if (!scheduler.isDue(source, now)) {
+                skipped++;
+                continue;
+            }
             try {
-                List<Gadget> gadgets = fetchFromFeed(source);
+                List<Gadget> gadgets = fetchFromFeed(source, now);
                 allGadgets.addAll(gadgets);
                 logger.info("Fetched {} items from {}", gadgets.size(), source.name());
             } catch (Exception e) {
                 logger.warn("Failed to fetch from {}: {}", source.name(), e.getMessage());
+                scheduler.recordFailure(source, now);
             }
         }
 
+        logger.info("Polled {} feeds, skipped {} not yet due", feedSources.size() - skipped, skipped);
         return allGadgets;
     }
 
     /**
      * 単一のRSSフィードからガジェット情報を取得
      */
-    private List<Gadget> fetchFromFeed(FeedSource source) throws Exception {
+    private List<Gadget> fetchFromFeed(FeedSource source, Instant now) throws Exception {
         List<Gadget> gadgets = new ArrayList<>();
 
         URL feedUrl = URI.create(source.url()).toURL();
         SyndFeedInput input = new SyndFeedInput();
         SyndFeed feed = input.build(new XmlReader(feedUrl));
 
+        // スケジューラ用の観測値
+        Instant lastSeen = scheduler.getLastSeenPublishedAt(source);
+        int newEntries = 0;
+        int relevantEntries = 0;
+        Instant oldest = null;
+        Instant newest = null;
+
         for (SyndEntry entry : feed.getEntries()) {
+            Instant published = entry.getPublishedDate() != null ? entry.getPublishedDate().toInstant() : null;
+            boolean isNew = published == null || lastSeen == null || published.isAfter(lastSeen);
+            if (isNew) {
+                newEntries++;
+                if (published != null) {
+                    oldest = oldest == null || published.isBefore(oldest) ? published : oldest;
+                    newest = newest == null || published.isAfter(newest) ? published : newest;
+                }
+            }
+
+            // 前回取得済みの記事は再処理しない
+            if (!isNew) {
+                continue;
+            }
+
             // ガジェット関連の記事のみ抽出（キーワードフィルタリング）
             String title = entry.getTitle();
             if (!isGadgetRelated(title)) {
                 continue;
             }
+            relevantEntries++;
 
             Gadget gadget = new Gadget();
-            gadget.setId(UUID.randomUUID().toString().substring(0, 8));
+            gadget.setId(stableId(entry.getLink()));
             gadget.setTitle(title);
             gadget.setSourceUrl(entry.getLink());
             gadget.setSourceName(source.name());
 
             // 公開日時
-            if (entry.getPublishedDate() != null) {
-                gadget.setPublishedAt(entry.getPublishedDate().toInstant().toString());
+            if (published != null) {
+                gadget.setPublishedAtMillis(published.toEpochMilli());
             } else {
-                gadget.setPublishedAt(Instant.now().toString());
+                gadget.setPublishedAtMillis(now.toEpochMilli());
             }
 
+            // 画像が添付されていれば記事ページのスクレイピングを省略できる
+            gadget.setImageUrl(enclosureImageUrl(entry));
+
             // 説明文（後でAIで要約される）
             if (entry.getDescription() != null) {
                 gadget.setOriginalContent(entry.getDescription().getValue());
@@ -88,9 +125,40 @@ public class RssFetcher {
             gadgets.add(gadget);
         }
 
+        scheduler.recordFetch(source, now,
+                new FeedScheduler.FeedObservation(newEntries, relevantEntries, oldest, newest));
         return gadgets;
     }
 
+    /**
+     * 記事に添付された画像（type が image/* の enclosure）のURL
+     */
+    private static String enclosureImageUrl(SyndEntry entry) {
+        for (SyndEnclosure enclosure : entry.getEnclosures()) {
+            String type = enclosure.getType();
+            String url = enclosure.getUrl();
+            if (type != null && type.startsWith("image/") && url != null && !url.isBlank()) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 記事URLから導出するID（同じ記事は再取得しても同じIDになる）
+     */
+    private static String stableId(String link) {
+        if (link == null) {
+            return UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(link.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * タイトルがガジェット関連かどうかを判定
      */
@@ -115,10 +183,4 @@ public class RssFetcher {
         }
         return false;
     }
-
-    /**
-     * RSSフィードソース情報
-     */
-    private record FeedSource(String name, String url) {
-    }
 }
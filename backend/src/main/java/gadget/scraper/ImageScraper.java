@@ -78,18 +78,18 @@ public class ImageScraper {
                     // フォールバック画像（Unsplash）
                     gadget.setImageUrl(getPlaceholderImage(gadget.getCategory()));
                 }
+
+                // レート制限対策（記事ページを取得した場合のみ）
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
             }
             count++;
             if (count % 10 == 0) {
                 logger.info("Fetched images for {}/{} gadgets", count, gadgets.size());
             }
-
-            // レート制限対策
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
         }
     }
 
@@ -0,0 +1,61 @@
+package gadget.trend;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 記事タイトルからトレンド集計用のキーを抽出する
+ *
+ * キーワード単位（例: "kw:iphone"）と、型番まで含めた製品単位（例: "product:iphone 16 pro"）の2種類。
+ */
+final class TrendKeys {
+    private static final String[] KEYWORDS = {
+            "iphone", "ipad", "pixel", "galaxy", "xperia", "macbook", "surface", "airpods",
+            "apple watch", "galaxy watch", "pixel watch", "switch", "playstation", "ps5",
+            "steam deck", "xbox", "geforce", "rtx", "radeon", "kindle", "fire tv"
+    };
+    private static final Pattern PRODUCT = Pattern.compile(
+            "(" + String.join("|", sortedByLength(KEYWORDS)) + ")"
+                    + "\\s*([0-9]{1,4}[a-z]?|[a-z][0-9]{1,4}[a-z]?)?"
+                    + "(?:\\s*(pro|max|ultra|plus|mini|air|fold|flip|se|lite|fe)\\b)?");
+
+    private static final String KEYWORD_PREFIX = "kw:";
+    private static final String PRODUCT_PREFIX = "product:";
+
+    private TrendKeys() {}
+
+    static boolean isProduct(String key) {
+        return key.startsWith(PRODUCT_PREFIX);
+    }
+
+    static Set<String> extract(String title) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (title == null) {
+            return keys;
+        }
+        Matcher matcher = PRODUCT.matcher(title.toLowerCase());
+        while (matcher.find()) {
+            String keyword = matcher.group(1);
+            keys.add(KEYWORD_PREFIX + keyword);
+            if (matcher.group(2) != null) {
+                String product = keyword + " " + matcher.group(2)
+                        + (matcher.group(3) != null ? " " + matcher.group(3) : "");
+                keys.add(PRODUCT_PREFIX + product);
+            }
+        }
+        return keys;
+    }
+
+    // 長いキーワードを優先してマッチさせる（"apple watch" と "galaxy watch" など）
+    private static String[] sortedByLength(String[] keywords) {
+        String[] sorted = keywords.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(b.length(), a.length()));
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = Pattern.quote(sorted[i]);
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,29 @@
+package gadget.trend;
+
+/**
+ * キーワード・製品ごとの減衰スコア
+ *
+ * fast は短い半減期、slow は長い半減期で減衰する言及数の累積値。
+ * いずれも updatedAt 時点の値で、参照時に経過時間分を減衰させる。
+ * trending は updatedAt 時点の判定結果で、次回の判定の閾値を切り替えるために保持する。
+ */
+public class TrendScore {
+    private double fast;
+    private double slow;
+    private long updatedAt;
+    private boolean trending;
+
+    public TrendScore() {}
+
+    public double getFast() { return fast; }
+    public void setFast(double fast) { this.fast = fast; }
+
+    public double getSlow() { return slow; }
+    public void setSlow(double slow) { this.slow = slow; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+
+    public boolean isTrending() { return trending; }
+    public void setTrending(boolean trending) { this.trending = trending; }
+}
@@ -0,0 +1,152 @@
+package gadget.trend;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import gadget.model.Gadget;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * キーワード・製品ごとの言及数を時間減衰させて保持し、トレンドを判定するストア
+ *
+ * 実行ごとに新着記事の分だけスコアを更新し（O(新着記事数)）、実行間で状態を引き継ぐ。
+ * 短い半減期のスコア（直近の勢い）と長い半減期のスコア（平常時の水準）の比を速度とし、
+ * 直近の言及が十分にあり、かつ平常時より明確に増えているものをトレンドとする。
+ * 一定のペースで言及され続けるキーの速度は1前後で揺れるため、トレンド入りと解除の閾値を分けて判定を安定させる。
+ * 同じ記事を二重に数えないよう、呼び出し側でアーカイブ済み・公開済みの記事を除いた新着記事のみを渡す。
+ */
+public class TrendStore {
+    private static final Logger logger = LoggerFactory.getLogger(TrendStore.class);
+
+    private static final double HOUR_MILLIS = 3_600_000.0;
+    private static final double FAST_HALF_LIFE_HOURS = 24;
+    private static final double SLOW_HALF_LIFE_HOURS = 24 * 7;
+    private static final double FAST_LAMBDA = Math.log(2) / FAST_HALF_LIFE_HOURS;
+    private static final double SLOW_LAMBDA = Math.log(2) / SLOW_HALF_LIFE_HOURS;
+
+    private static final double MIN_FAST_SCORE = 1.5;   // 直近1日以内に2件以上の言及
+    private static final double HOT_FAST_SCORE = 5.0;   // 製品単位で速度に関わらずトレンドとする水準
+    private static final double ENTER_VELOCITY = 1.5;   // 平常時の1.5倍以上のペースでトレンド入り
+    private static final double EXIT_VELOCITY = 1.0;    // 平常時のペースを下回るまでは維持
+    private static final double PRUNE_SCORE = 0.01;
+
+    private final Path stateFile;
+    private final Map<String, TrendScore> scores;
+    private final Gson gson = new Gson();
+
+    private TrendStore(Path stateFile, Map<String, TrendScore> scores) {
+        this.stateFile = stateFile;
+        this.scores = scores;
+    }
+
+    /**
+     * 状態ファイルからスコアを読み込む（存在しない場合は空の状態で開始）
+     */
+    public static TrendStore load(Path stateFile) {
+        Map<String, TrendScore> scores = new HashMap<>();
+        if (stateFile != null && Files.exists(stateFile)) {
+            try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+                Map<String, TrendScore> loaded = new Gson().fromJson(reader,
+                        new TypeToken<Map<String, TrendScore>>() {}.getType());
+                if (loaded != null) {
+                    scores.putAll(loaded);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to load trend scores from {}: {}", stateFile, e.getMessage());
+            }
+        }
+        return new TrendStore(stateFile, scores);
+    }
+
+    /**
+     * 新着記事の言及をスコアに加算する（公開日時から現在までの経過分を減衰させて加算）
+     */
+    public void recordAll(List<Gadget> newGadgets, long nowMillis) {
+        for (Gadget gadget : newGadgets) {
+            double ageHours = Math.max(0, (nowMillis - gadget.getPublishedAtMillis()) / HOUR_MILLIS);
+            double fastWeight = Math.exp(-FAST_LAMBDA * ageHours);
+            double slowWeight = Math.exp(-SLOW_LAMBDA * ageHours);
+            for (String key : TrendKeys.extract(gadget.getTitle())) {
+                TrendScore score = decayed(scores.get(key), nowMillis);
+                score.setFast(score.getFast() + fastWeight);
+                score.setSlow(score.getSlow() + slowWeight);
+                scores.put(key, score);
+            }
+        }
+    }
+
+    /**
+     * 記事に含まれるキーワード・製品のいずれかがトレンドかどうか
+     */
+    public boolean isTrending(Gadget gadget, long nowMillis) {
+        for (String key : TrendKeys.extract(gadget.getTitle())) {
+            TrendScore stored = scores.get(key);
+            if (stored != null && isTrending(key, decayed(stored, nowMillis))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTrending(String key, TrendScore score) {
+        if (score.getFast() < MIN_FAST_SCORE) {
+            return false;
+        }
+        // キーワード単位は常に言及が多いため、製品単位でのみ件数だけで判定する
+        if (TrendKeys.isProduct(key) && score.getFast() >= HOT_FAST_SCORE) {
+            return true;
+        }
+        return velocity(score) >= (score.isTrending() ? EXIT_VELOCITY : ENTER_VELOCITY);
+    }
+
+    /**
+     * 直近の言及ペースと平常時の言及ペースの比（1より大きければ増加傾向）
+     */
+    private static double velocity(TrendScore score) {
+        double fastRate = score.getFast() * FAST_LAMBDA;
+        double slowRate = score.getSlow() * SLOW_LAMBDA;
+        return slowRate <= 0 ? 0 : fastRate / slowRate;
+    }
+
+    /**
+     * 現在の判定結果を記録し、十分に減衰したスコアを除いて状態ファイルに保存
+     */
+    public void save(long nowMillis) throws IOException {
+        scores.replaceAll((key, score) -> {
+            TrendScore current = decayed(score, nowMillis);
+            current.setTrending(isTrending(key, current));
+            return current;
+        });
+        scores.values().removeIf(score -> score.getSlow() < PRUNE_SCORE);
+        if (stateFile.getParent() != null) {
+            Files.createDirectories(stateFile.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(stateFile, StandardCharsets.UTF_8)) {
+            gson.toJson(scores, writer);
+        }
+        logger.info("Saved {} trend scores to {}", scores.size(), stateFile);
+    }
+
+    private static TrendScore decayed(TrendScore score, long nowMillis) {
+        TrendScore result = new TrendScore();
+        result.setUpdatedAt(nowMillis);
+        if (score == null) {
+            return result;
+        }
+        result.setTrending(score.isTrending());
+        double elapsedHours = Math.max(0, (nowMillis - score.getUpdatedAt()) / HOUR_MILLIS);
+        result.setFast(score.getFast() * Math.exp(-FAST_LAMBDA * elapsedHours));
+        result.setSlow(score.getSlow() * Math.exp(-SLOW_LAMBDA * elapsedHours));
+        return result;
+    }
+}
@@ -0,0 +1,42 @@
+package gadget.archive;
+
+import gadget.model.Gadget;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveStatusTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void detectsArchiveSmallerThanRecorded() throws Exception {
+        Path statusFile = dir.resolve("archive-status.json");
+        try (GadgetArchive empty = GadgetArchive.open(dir.resolve("empty"))) {
+            assertTrue(ArchiveStatus.load(statusFile).verify(empty));
+        }
+
+        try (GadgetArchive archive = GadgetArchive.open(dir.resolve("archive"))) {
+            Gadget gadget = new Gadget();
+            gadget.setSourceUrl("https://example.com/a");
+            archive.appendAll(List.of(gadget));
+            ArchiveStatus.load(statusFile).save(statusFile, archive);
+        }
+
+        ArchiveStatus status = ArchiveStatus.load(statusFile);
+        assertEquals(1, status.getCount());
+        try (GadgetArchive restored = GadgetArchive.open(dir.resolve("archive"))) {
+            assertTrue(status.verify(restored));
+        }
+        try (GadgetArchive lost = GadgetArchive.open(dir.resolve("lost"))) {
+            assertFalse(status.verify(lost));
+        }
+    }
+}
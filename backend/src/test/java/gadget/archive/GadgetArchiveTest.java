@@ -0,0 +1,190 @@
+package gadget.archive;
+
+import gadget.model.Category;
+import gadget.model.Gadget;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GadgetArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsAllFields() throws Exception {
+        Gadget gadget = gadget("https://example.com/a", 1_700_000_000_000L);
+        gadget.setSummary("要約");
+        gadget.setPrice(99_800L);
+        gadget.setPriceText("¥99,800");
+        gadget.setCategoryEnum(Category.SMART_HOME);
+        gadget.setImageUrl("https://example.com/a.jpg");
+        gadget.setTrending(true);
+
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            archive.appendAll(List.of(gadget, gadget("https://example.com/b", 1L)));
+        }
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            Gadget read = archive.findBySourceUrl("https://example.com/a");
+            assertNotNull(read);
+            assertEquals(gadget.getId(), read.getId());
+            assertEquals(gadget.getTitle(), read.getTitle());
+            assertEquals("要約", read.getSummary());
+            assertEquals(99_800L, read.getPrice());
+            assertEquals("¥99,800", read.getPriceText());
+            assertEquals(Category.SMART_HOME, read.getCategoryEnum());
+            assertEquals("https://example.com/a.jpg", read.getImageUrl());
+            assertEquals("CNET Japan", read.getSourceName());
+            assertEquals(1_700_000_000_000L, read.getPublishedAtMillis());
+            assertTrue(read.isTrending());
+
+            Gadget noPrice = archive.findBySourceUrl("https://example.com/b");
+            assertNull(noPrice.getPrice());
+            assertNull(noPrice.getCategoryEnum());
+            assertNull(archive.findBySourceUrl("https://example.com/missing"));
+            assertEquals(2, archive.size());
+        }
+    }
+
+    @Test
+    void reappendedUrlReplacesOlderRecord() throws Exception {
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            Gadget first = gadget("https://example.com/a", 100);
+            first.setPrice(1000L);
+            archive.appendAll(List.of(first, gadget("https://example.com/b", 200)));
+
+            Gadget second = gadget("https://example.com/a", 100);
+            second.setPrice(900L);
+            archive.appendAll(List.of(second));
+
+            assertEquals(2, archive.size());
+            assertEquals(900L, archive.findBySourceUrl("https://example.com/a").getPrice());
+            assertEquals(2, scanAll(archive).size());
+        }
+    }
+
+    @Test
+    void scanFiltersByPublishTime() throws Exception {
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            archive.appendAll(List.of(gadget("u1", 100), gadget("u2", 200)));
+            archive.appendAll(List.of(gadget("u3", 300), gadget("u4", 400)));
+
+            List<Gadget> found = new ArrayList<>();
+            archive.scan(150, 300, found::add);
+            assertEquals(List.of("u2", "u3"), found.stream().map(Gadget::getSourceUrl).toList());
+        }
+    }
+
+    @Test
+    void indexGrowsBeyondInitialCapacity() throws Exception {
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            List<Gadget> batch = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                batch.add(gadget("https://example.com/" + i, i));
+            }
+            archive.appendAll(batch);
+            assertEquals(3000, archive.size());
+        }
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            for (int i = 0; i < 3000; i += 97) {
+                assertNotNull(archive.findBySourceUrl("https://example.com/" + i));
+            }
+        }
+    }
+
+    @Test
+    void compactionDropsStaleRecordsAndSortsByPublishTime() throws Exception {
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            archive.appendAll(List.of(gadget("u3", 300), gadget("u1", 100)));
+            archive.appendAll(List.of(gadget("u2", 200), gadget("u3", 50)));
+            archive.compact();
+
+            assertEquals(3, archive.size());
+            assertEquals(List.of("u3", "u1", "u2"), scanAll(archive).stream().map(Gadget::getSourceUrl).toList());
+            assertFalse(archive.needsCompaction());
+        }
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            assertEquals(3, archive.size());
+            assertEquals(50, archive.findBySourceUrl("u3").getPublishedAtMillis());
+            archive.appendAll(List.of(gadget("u4", 400)));
+            assertEquals(4, scanAll(archive).size());
+        }
+    }
+
+    @Test
+    void truncatesTornTailOnOpen() throws Exception {
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            archive.appendAll(List.of(gadget("u1", 100)));
+        }
+        long intactSize = Files.size(dir.resolve("gadgets.log"));
+        // 長さフィールドだけ書かれて本体が欠けたレコード
+        Files.write(dir.resolve("gadgets.log"), new byte[] {0, 0, 1, 0, 1, 2}, StandardOpenOption.APPEND);
+
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            assertEquals(intactSize, Files.size(dir.resolve("gadgets.log")));
+            assertEquals(1, archive.size());
+            archive.appendAll(List.of(gadget("u2", 200)));
+            assertEquals(2, scanAll(archive).size());
+        }
+    }
+
+    @Test
+    void recoversBatchWrittenBeforeIndexWasUpdated() throws Exception {
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            archive.appendAll(List.of(gadget("u1", 100)));
+        }
+        byte[] indexBeforeSecondBatch = Files.readAllBytes(dir.resolve("gadgets.idx"));
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            archive.appendAll(List.of(gadget("u2", 200), gadget("u3", 300)));
+        }
+        // ログとセグメントは書き込まれたがインデックスは更新されなかった状態を再現
+        Files.write(dir.resolve("gadgets.idx"), indexBeforeSecondBatch);
+
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            assertEquals(3, archive.size());
+            assertEquals(List.of("u1", "u2", "u3"), scanAll(archive).stream().map(Gadget::getSourceUrl).toList());
+        }
+    }
+
+    @Test
+    void rebuildsMissingIndexFromLog() throws Exception {
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            archive.appendAll(List.of(gadget("u1", 100), gadget("u2", 200)));
+            archive.appendAll(List.of(gadget("u1", 150)));
+        }
+        Files.delete(dir.resolve("gadgets.idx"));
+
+        try (GadgetArchive archive = GadgetArchive.open(dir)) {
+            assertEquals(2, archive.size());
+            assertEquals(150, archive.findBySourceUrl("u1").getPublishedAtMillis());
+            assertEquals(2, scanAll(archive).size());
+        }
+    }
+
+    private static List<Gadget> scanAll(GadgetArchive archive) {
+        List<Gadget> result = new ArrayList<>();
+        archive.scan(Long.MIN_VALUE, Long.MAX_VALUE, result::add);
+        return result;
+    }
+
+    private static Gadget gadget(String sourceUrl, long publishedAtMillis) {
+        Gadget gadget = new Gadget();
+        gadget.setId("id-" + sourceUrl);
+        gadget.setTitle("title " + sourceUrl);
+        gadget.setSourceUrl(sourceUrl);
+        gadget.setSourceName("CNET Japan");
+        gadget.setPublishedAtMillis(publishedAtMillis);
+        return gadget;
+    }
+}
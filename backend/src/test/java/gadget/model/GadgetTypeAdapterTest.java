@@ -0,0 +1,88 @@
+package gadget.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * gadgets.json の形式が変更前（Gsonのリフレクションによる出力）と同一であることを確認する
+ *
+ * gadgets-baseline.json は変更前の Gadget クラスを Gson で出力したもの。
+ */
+class GadgetTypeAdapterTest {
+
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    @Test
+    void writesBaselineShape() throws Exception {
+        assertEquals(baseline(), gson.toJson(List.of(fullGadget(), sparseGadget())));
+    }
+
+    @Test
+    void readsBaselineShape() throws Exception {
+        List<Gadget> gadgets = gson.fromJson(baseline(), new TypeToken<List<Gadget>>() {}.getType());
+
+        Gadget full = gadgets.get(0);
+        assertEquals("3f2a9c1b7d4e8a60", full.getId());
+        assertEquals(159_800L, full.getPrice());
+        assertEquals("¥159,800", full.getPriceText());
+        assertEquals(Category.MOBILE, full.getCategoryEnum());
+        assertEquals("Appleが新型スマートフォンを発表。\nカメラ性能が向上した。", full.getSummary());
+        assertEquals("2025-09-15T01:00:00Z", full.getPublishedAt());
+        assertTrue(full.isTrending());
+
+        Gadget sparse = gadgets.get(1);
+        assertNull(sparse.getPrice());
+        assertNull(sparse.getSummary());
+        assertNull(sparse.getImageUrl());
+        assertEquals("Smart Home", sparse.getCategory());
+        assertEquals("2025-09-16T00:00:00.123Z", sparse.getPublishedAt());
+        assertFalse(sparse.isTrending());
+
+        assertEquals(baseline(), gson.toJson(gadgets));
+    }
+
+    private static Gadget fullGadget() {
+        Gadget gadget = new Gadget();
+        gadget.setId("3f2a9c1b7d4e8a60");
+        gadget.setTitle("新型iPhone 17 Proを発表、税込 15万9800円から");
+        gadget.setSummary("Appleが新型スマートフォンを発表。\nカメラ性能が向上した。");
+        gadget.setPrice(159_800L);
+        gadget.setPriceText("¥159,800");
+        gadget.setCategory("Mobile");
+        gadget.setImageUrl("https://example.com/iphone.jpg");
+        gadget.setSourceUrl("https://example.com/iphone-17-pro");
+        gadget.setSourceName("ITmedia Mobile");
+        gadget.setPublishedAt("2025-09-15T01:00:00Z");
+        gadget.setTrending(true);
+        return gadget;
+    }
+
+    private static Gadget sparseGadget() {
+        Gadget gadget = new Gadget();
+        gadget.setId("9b1c0d2e3f405162");
+        gadget.setTitle("スマートスピーカーの新モデル");
+        gadget.setPriceText("価格未定");
+        gadget.setCategory("Smart Home");
+        gadget.setSourceUrl("https://example.com/speaker");
+        gadget.setSourceName("CNET Japan");
+        gadget.setPublishedAt("2025-09-16T00:00:00.123Z");
+        return gadget;
+    }
+
+    private static String baseline() throws Exception {
+        try (InputStream in = GadgetTypeAdapterTest.class.getResourceAsStream("gadgets-baseline.json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package gadget.price;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceExtractorTest {
+
+    private final PriceExtractor extractor = new PriceExtractor();
+
+    @Test
+    void parsesMixedNotations() {
+        assertEquals(99_800, PriceExtractor.parseJapaneseNumber("9万9800"));
+        assertEquals(99_800, PriceExtractor.parseJapaneseNumber("九万九千八百"));
+        assertEquals(15_000, PriceExtractor.parseJapaneseNumber("1.5万"));
+        assertEquals(99_800, PriceExtractor.parseJapaneseNumber("99,800"));
+    }
+
+    @Test
+    void acceptsSinglePrice() {
+        PriceExtractor.Result result = extractor.extract("新型スマホ、税込 9万9800円で発売", null);
+        assertEquals(99_800L, result.price());
+        assertEquals("¥99,800", result.priceText());
+        assertTrue(result.isConfident());
+
+        assertEquals(99_800L, extractor.extract("価格は&yen;99,800", "<p>発売日は未定</p>").price());
+    }
+
+    @Test
+    void rejectsIndefiniteAmounts() {
+        assertNull(extractor.extract("数十万円クラスの性能", null).price());
+        assertNull(extractor.extract("数千円で買えるイヤホン", null).price());
+        assertNull(extractor.extract("十数万円の差", null).price());
+        assertNull(extractor.extract("何万円も安い", null).price());
+    }
+
+    @Test
+    void rejectsBareUnits() {
+        assertNull(extractor.extract("千円でお釣りがくる", null).price());
+        assertNull(extractor.extract("百円ショップで買える便利グッズ", null).price());
+    }
+
+    @Test
+    void rejectsNonProductAmounts() {
+        assertNull(extractor.extract("月額980円のサブスク", null).price());
+        assertNull(extractor.extract("5000円引きのセール", null).price());
+    }
+
+    @Test
+    void lowersConfidenceForApproximateOrMultiplePrices() {
+        PriceExtractor.Result approximate = extractor.extract("12万円前後になる見込み", null);
+        assertEquals(120_000L, approximate.price());
+        assertFalse(approximate.isConfident());
+
+        assertFalse(extractor.extract("64GBは5万9800円、128GBは6万9800円", null).isConfident());
+    }
+}
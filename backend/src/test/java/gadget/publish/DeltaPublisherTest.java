@@ -0,0 +1,118 @@
+package gadget.publish;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import gadget.model.Gadget;
+import gadget.model.GadgetData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaPublisherTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void firstVersionHasNoDeltas() throws Exception {
+        JsonObject manifest = publish(List.of(gadget("a", "A"), gadget("b", "B")));
+
+        assertEquals(1, manifest.get("version").getAsLong());
+        assertEquals(2, manifest.get("count").getAsInt());
+        assertEquals("gadgets.json", manifest.get("full").getAsString());
+        assertTrue(manifest.getAsJsonObject("deltas").isEmpty());
+    }
+
+    @Test
+    void deltaListsAddedUpdatedAndRemovedGadgets() throws Exception {
+        publish(List.of(gadget("a", "A"), gadget("b", "B"), gadget("c", "C")));
+        JsonObject manifest = publish(List.of(gadget("a", "A"), gadget("b", "B 改訂"), gadget("d", "D")));
+
+        assertEquals("deltas/gadgets-delta-1-2.json", manifest.getAsJsonObject("deltas").get("1").getAsString());
+        JsonObject delta = readJson(dir.resolve("out/deltas/gadgets-delta-1-2.json"));
+        assertEquals(1, delta.get("fromVersion").getAsLong());
+        assertEquals(2, delta.get("toVersion").getAsLong());
+        assertEquals(List.of("d"), ids(delta.getAsJsonArray("added")));
+        assertEquals(List.of("b"), ids(delta.getAsJsonArray("updated")));
+        assertEquals("B 改訂", delta.getAsJsonArray("updated").get(0).getAsJsonObject().get("title").getAsString());
+        assertEquals(List.of("c"), new Gson().fromJson(delta.getAsJsonArray("removed"), List.class));
+    }
+
+    @Test
+    void keepsDeltasFromLastTenVersions() throws Exception {
+        JsonObject manifest = null;
+        for (int version = 1; version <= 13; version++) {
+            manifest = publish(List.of(gadget("a", "A" + version)));
+        }
+
+        assertEquals(13, manifest.get("version").getAsLong());
+        Set<String> expected = Stream.iterate(3, v -> v + 1).limit(10).map(String::valueOf).collect(Collectors.toSet());
+        assertEquals(expected, manifest.getAsJsonObject("deltas").keySet());
+        try (Stream<Path> deltas = Files.list(dir.resolve("out/deltas"))) {
+            assertEquals(10, deltas.count());
+        }
+        try (Stream<Path> snapshots = Files.list(dir.resolve("versions"))) {
+            assertEquals(11, snapshots.count());
+        }
+        assertEquals(14, new DeltaPublisher(dir.resolve("out"), dir.resolve("versions")).nextVersion());
+    }
+
+    @Test
+    void etagIsStrongHashOfFullFile() throws Exception {
+        JsonObject first = publish(List.of(gadget("a", "A")));
+        byte[] full = Files.readAllBytes(dir.resolve("out/gadgets.json"));
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(full));
+        assertEquals("\"" + hash + "\"", first.get("etag").getAsString());
+
+        JsonObject second = publish(List.of(gadget("a", "A 改訂")));
+        assertNotEquals(first.get("etag").getAsString(), second.get("etag").getAsString());
+    }
+
+    /**
+     * Main と同じく gadgets.json を書き出してから差分とマニフェストを出力する
+     */
+    private JsonObject publish(List<Gadget> gadgets) throws Exception {
+        Path outputDir = dir.resolve("out");
+        Files.createDirectories(outputDir);
+        DeltaPublisher publisher = new DeltaPublisher(outputDir, dir.resolve("versions"));
+        GadgetData data = new GadgetData(new ArrayList<>(gadgets));
+        data.setVersion(publisher.nextVersion());
+        Files.writeString(outputDir.resolve("gadgets.json"), new GsonBuilder().setPrettyPrinting().create().toJson(data));
+        publisher.publish(data);
+        return readJson(outputDir.resolve("gadgets-manifest.json"));
+    }
+
+    private static JsonObject readJson(Path path) throws Exception {
+        return new Gson().fromJson(Files.readString(path), JsonObject.class);
+    }
+
+    private static List<String> ids(JsonArray gadgets) {
+        List<String> ids = new ArrayList<>();
+        gadgets.forEach(g -> ids.add(g.getAsJsonObject().get("id").getAsString()));
+        return ids;
+    }
+
+    private static Gadget gadget(String id, String title) {
+        Gadget gadget = new Gadget();
+        gadget.setId(id);
+        gadget.setTitle(title);
+        gadget.setSourceUrl("https://example.com/" + id);
+        gadget.setPublishedAtMillis(1_700_000_000_000L);
+        return gadget;
+    }
+}
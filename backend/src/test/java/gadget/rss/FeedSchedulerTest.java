@@ -0,0 +1,135 @@
+package gadget.rss;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedSchedulerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final FeedSource SOURCE = new FeedSource("Feed", "https://example.com/feed", true, 60, 4320, 3);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pollsNewFeedImmediatelyAndWaitsForNextFetch() {
+        FeedScheduler scheduler = FeedScheduler.load(dir.resolve("feed-stats.json"));
+        assertTrue(scheduler.isDue(SOURCE, NOW));
+
+        scheduler.recordFetch(SOURCE, NOW, observation(4, 4, minutesAgo(360), NOW));
+        assertFalse(scheduler.isDue(SOURCE, NOW.plus(Duration.ofMinutes(300))));
+        assertTrue(scheduler.isDue(SOURCE, NOW.plus(Duration.ofMinutes(360))));
+        // cronの起動遅延分は早めでも取得する
+        assertTrue(scheduler.isDue(SOURCE, NOW.plus(Duration.ofMinutes(355))));
+    }
+
+    @Test
+    void intervalYieldsTargetItemsPerFetch() {
+        FeedScheduler scheduler = FeedScheduler.load(null);
+
+        // 4件が6時間に公開（120分に1件）、全件ガジェット記事 → 3件得られるのは360分
+        scheduler.recordFetch(SOURCE, NOW, observation(4, 4, minutesAgo(360), NOW));
+        FeedStats stats = scheduler.getStats(SOURCE);
+        assertEquals(120, stats.getAvgPublishIntervalMinutes(), 1e-9);
+        assertEquals(360, stats.getCurrentIntervalMinutes());
+
+        // 半分しかガジェット記事でなければ間隔も倍になる
+        FeedScheduler halfYield = FeedScheduler.load(null);
+        halfYield.recordFetch(SOURCE, NOW, observation(4, 2, minutesAgo(360), NOW));
+        assertEquals(720, halfYield.getStats(SOURCE).getCurrentIntervalMinutes());
+    }
+
+    @Test
+    void intervalIsClampedToConfiguredRange() {
+        FeedScheduler busy = FeedScheduler.load(null);
+        busy.recordFetch(SOURCE, NOW, observation(10, 10, minutesAgo(90), NOW));
+        assertEquals(60, busy.getStats(SOURCE).getCurrentIntervalMinutes());
+
+        FeedScheduler quiet = FeedScheduler.load(null);
+        quiet.recordFetch(SOURCE, NOW, observation(3, 1, minutesAgo(2 * 24 * 60), NOW));
+        assertEquals(4320, quiet.getStats(SOURCE).getCurrentIntervalMinutes());
+    }
+
+    @Test
+    void averagesPublishIntervalSinceLastSeenEntry() {
+        FeedScheduler scheduler = FeedScheduler.load(null);
+        scheduler.recordFetch(SOURCE, NOW, observation(4, 4, minutesAgo(360), NOW));
+
+        // 前回の最新記事から60分で2件 → 観測値30分を指数移動平均で反映（120 * 0.7 + 30 * 0.3）
+        Instant later = NOW.plus(Duration.ofMinutes(360));
+        scheduler.recordFetch(SOURCE, later,
+                observation(2, 2, NOW.plus(Duration.ofMinutes(30)), NOW.plus(Duration.ofMinutes(60))));
+        FeedStats stats = scheduler.getStats(SOURCE);
+        assertEquals(93, stats.getAvgPublishIntervalMinutes(), 1e-9);
+        assertEquals(279, stats.getCurrentIntervalMinutes());
+        assertEquals(NOW.plus(Duration.ofMinutes(60)).toString(), stats.getLastSeenPublishedAt());
+    }
+
+    @Test
+    void backsOffWhenNoNewEntriesArrive() {
+        FeedScheduler scheduler = FeedScheduler.load(null);
+        scheduler.recordFetch(SOURCE, NOW, observation(4, 4, minutesAgo(360), NOW));
+        double average = scheduler.getStats(SOURCE).getAvgPublishIntervalMinutes();
+
+        // 新着なしで最新記事から1000分経過 → 公開間隔は少なくとも1000分という観測として平均を伸ばす
+        Instant later = NOW.plus(Duration.ofMinutes(1000));
+        scheduler.recordFetch(SOURCE, later, observation(0, 0, null, null));
+        FeedStats stats = scheduler.getStats(SOURCE);
+        assertTrue(stats.getAvgPublishIntervalMinutes() > average);
+        assertEquals(NOW.toString(), stats.getLastSeenPublishedAt());
+        long afterFirstEmpty = stats.getCurrentIntervalMinutes();
+
+        // 連続して空振りした場合はさらに間隔を倍にする
+        scheduler.recordFetch(SOURCE, later.plus(Duration.ofMinutes(afterFirstEmpty)), observation(0, 0, null, null));
+        assertTrue(scheduler.getStats(SOURCE).getCurrentIntervalMinutes() >= Math.min(4320, afterFirstEmpty * 2));
+    }
+
+    @Test
+    void failuresBackOffExponentiallyUntilNextSuccess() {
+        FeedScheduler scheduler = FeedScheduler.load(null);
+        long[] expected = {120, 240, 480, 960, 1920, 3840, 4320, 4320};
+        Instant now = NOW;
+        for (long retry : expected) {
+            scheduler.recordFailure(SOURCE, now);
+            Instant next = Instant.parse(scheduler.getStats(SOURCE).getNextFetchAt());
+            assertEquals(retry, Duration.between(now, next).toMinutes());
+            now = next;
+        }
+
+        scheduler.recordFetch(SOURCE, now, observation(4, 4, now.minus(Duration.ofMinutes(360)), now));
+        scheduler.recordFailure(SOURCE, now);
+        assertEquals(1, scheduler.getStats(SOURCE).getConsecutiveFailures());
+        assertEquals(now.plus(Duration.ofMinutes(120)).toString(), scheduler.getStats(SOURCE).getNextFetchAt());
+    }
+
+    @Test
+    void keepsStatsBetweenRuns() throws Exception {
+        Path stateFile = dir.resolve("feed-stats.json");
+        FeedScheduler scheduler = FeedScheduler.load(stateFile);
+        scheduler.recordFetch(SOURCE, NOW, observation(4, 4, minutesAgo(360), NOW));
+        scheduler.recordFailure(new FeedSource("Dead", "https://example.com/dead", true, 60, 4320, 3), NOW);
+        scheduler.save();
+
+        FeedScheduler reloaded = FeedScheduler.load(stateFile);
+        assertEquals(NOW, reloaded.getLastSeenPublishedAt(SOURCE));
+        assertFalse(reloaded.isDue(SOURCE, NOW.plus(Duration.ofMinutes(60))));
+        assertEquals(1, reloaded.getStats(new FeedSource("Dead", "https://example.com/dead")).getConsecutiveFailures());
+    }
+
+    private static Instant minutesAgo(long minutes) {
+        return NOW.minus(Duration.ofMinutes(minutes));
+    }
+
+    private static FeedScheduler.FeedObservation observation(int newEntries, int relevantEntries,
+            Instant oldest, Instant newest) {
+        return new FeedScheduler.FeedObservation(newEntries, relevantEntries, oldest, newest);
+    }
+}
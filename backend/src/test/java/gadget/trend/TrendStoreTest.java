@@ -0,0 +1,158 @@
+package gadget.trend;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import gadget.model.Gadget;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrendStoreTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long NOW = 1_700_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsScoresBetweenRuns() throws Exception {
+        Path stateFile = dir.resolve("trend-scores.json");
+        Gadget article = gadget("https://example.com/a", "Pixel 9 発表", NOW);
+
+        TrendStore store = TrendStore.load(stateFile);
+        store.recordAll(List.of(article), NOW);
+        assertFalse(store.isTrending(article, NOW));
+        store.save(NOW);
+
+        TrendStore reloaded = TrendStore.load(stateFile);
+        reloaded.recordAll(List.of(gadget("https://example.com/b", "Pixel 9 レビュー", NOW)), NOW + HOUR);
+        assertTrue(reloaded.isTrending(article, NOW + HOUR));
+    }
+
+    @Test
+    void highVolumeAloneMakesOnlyProductsTrending() {
+        // 4日前に集中した言及は、直近の件数は多いが平常時より減っている
+        List<Gadget> burst = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            burst.add(gadget("https://example.com/" + i, "iPhone 16 の話題", NOW - 96 * HOUR));
+        }
+        TrendStore store = TrendStore.load(dir.resolve("trend-scores.json"));
+        store.recordAll(burst, NOW);
+
+        assertTrue(store.isTrending(gadget("https://example.com/x", "iPhone 16 レビュー", NOW), NOW));
+        assertFalse(store.isTrending(gadget("https://example.com/y", "iPhoneケース特集", NOW), NOW));
+    }
+
+    @Test
+    void steadyCoverageDoesNotFlipBetweenRuns() throws Exception {
+        Path stateFile = dir.resolve("trend-scores.json");
+        Random random = new Random(42);
+        Gadget probe = gadget("https://example.com/probe", "iPhoneケース特集", NOW);
+        int article = 0;
+        int flips = 0;
+        boolean trending = false;
+
+        // 平均1時間に1件の言及を毎時の実行で60日間記録し、後半の4週間で判定が揺れないことを確認
+        for (int run = 0; run < 24 * 60; run++) {
+            long now = NOW + run * HOUR;
+            List<Gadget> mentions = new ArrayList<>();
+            for (int i = poisson(random, 1.0); i > 0; i--) {
+                mentions.add(gadget("https://example.com/" + article++, "iPhoneケース特集", now));
+            }
+            TrendStore store = TrendStore.load(stateFile);
+            store.recordAll(mentions, now);
+            boolean current = store.isTrending(probe, now);
+            store.save(now);
+
+            if (run >= 24 * 32) {
+                assertFalse(current, "steady coverage is trending at run " + run);
+                if (current != trending) {
+                    flips++;
+                }
+            }
+            trending = current;
+        }
+        assertEquals(0, flips);
+    }
+
+    @Test
+    void staysTrendingUntilVelocityFallsBelowSteadyPace() throws Exception {
+        Path stateFile = dir.resolve("trend-scores.json");
+        Gadget probe = gadget("https://example.com/probe", "Galaxy の話題", NOW);
+        int article = 0;
+
+        // 8時間に1件の平常ペースを4週間続けた後、6時間で12件の言及
+        long now = NOW;
+        for (; now < NOW + 28 * 24 * HOUR; now += 8 * HOUR) {
+            record(stateFile, now, gadget("https://example.com/" + article++, "Galaxy の話題", now));
+        }
+        assertFalse(isTrending(stateFile, probe, now));
+        for (int i = 0; i < 12; i++, now += HOUR / 2) {
+            record(stateFile, now, gadget("https://example.com/" + article++, "Galaxy の話題", now));
+        }
+        assertTrue(isTrending(stateFile, probe, now));
+
+        // 平常ペースに戻っても、速度が1を下回るまではトレンドを維持する
+        boolean exited = false;
+        for (int i = 0; i < 60 && !exited; i++, now += 8 * HOUR) {
+            record(stateFile, now, gadget("https://example.com/" + article++, "Galaxy の話題", now));
+            TrendStore store = TrendStore.load(stateFile);
+            boolean trending = store.isTrending(probe, now);
+            double velocity = velocityOf(stateFile, "kw:galaxy");
+            if (velocity >= 1.0) {
+                assertTrue(trending, "exited at velocity " + velocity);
+            } else {
+                assertFalse(trending);
+                exited = true;
+            }
+        }
+        assertTrue(exited);
+    }
+
+    private static void record(Path stateFile, long now, Gadget mention) throws Exception {
+        TrendStore store = TrendStore.load(stateFile);
+        store.recordAll(List.of(mention), now);
+        store.save(now);
+    }
+
+    private static boolean isTrending(Path stateFile, Gadget gadget, long now) {
+        return TrendStore.load(stateFile).isTrending(gadget, now);
+    }
+
+    private static double velocityOf(Path stateFile, String key) throws Exception {
+        Map<String, TrendScore> scores = new Gson().fromJson(Files.readString(stateFile),
+                new TypeToken<Map<String, TrendScore>>() {}.getType());
+        TrendScore score = scores.get(key);
+        return (score.getFast() / 24) / (score.getSlow() / (24 * 7));
+    }
+
+    private static int poisson(Random random, double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    private static Gadget gadget(String sourceUrl, String title, long publishedAtMillis) {
+        Gadget gadget = new Gadget();
+        gadget.setSourceUrl(sourceUrl);
+        gadget.setTitle(title);
+        gadget.setPublishedAtMillis(publishedAtMillis);
+        return gadget;
+    }
+}
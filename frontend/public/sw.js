@@ -1,4 +1,4 @@
-const CACHE_NAME = 'gadget-info-v1';
+const CACHE_NAME = 'gadget-info-v3';
 const STATIC_ASSETS = [
     '/',
     '/manifest.json',
@@ -30,6 +30,12 @@ self.addEventListener('activate', (event) => {
 
 // ネットワークファースト戦略（オフライン時はキャッシュを使用）
 self.addEventListener('fetch', (event) => {
+    // 差分ファイルとバージョン付きのデータはURLごとに別ファイルになり、キャッシュすると溜まり続けるため
+    // Service Workerでは扱わない（取得した内容は data-loader が localStorage に保持する）
+    if (event.request.url.includes('/data/deltas/') || /\/data\/gadgets\.json\?v=/.test(event.request.url)) {
+        return;
+    }
+
     // データAPIはネットワーク優先
     if (event.request.url.includes('/data/')) {
         event.respondWith(
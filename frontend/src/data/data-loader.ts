@@ -1,31 +1,112 @@
-import { GadgetData } from '@/types/gadget';
+import { Gadget, GadgetData, GadgetDelta, GadgetManifest } from '@/types/gadget';
 import { mockData } from './mock-data';
 
 const BASE_PATH = process.env.NEXT_PUBLIC_BASE_PATH || '';
-const DATA_URL = `${BASE_PATH}/data/gadgets.json`;
+const DATA_BASE = `${BASE_PATH}/data`;
+const DATA_URL = `${DATA_BASE}/gadgets.json`;
+const MANIFEST_URL = `${DATA_BASE}/gadgets-manifest.json`;
+const CACHE_KEY = 'gadget-data-cache';
+
+interface CachedData {
+    version: number;
+    etag: string;
+    data: GadgetData;
+}
 
 export async function loadGadgetData(): Promise<GadgetData> {
     try {
-        // キャッシュを回避するためにタイムスタンプを付与するか、next: { revalidate: 0 } を使う
-        // Static exportの場合はfetchのcache controlは効かないことがあるため、基本は静的ファイル取得
-        const response = await fetch(DATA_URL, { cache: 'no-store' });
-
-        if (!response.ok) {
-            console.warn(`Failed to fetch gadgets.json (status: ${response.status}). Using mock data.`);
-            return mockData;
+        // マニフェストのみ毎回取得し、手元のバージョンとの差分だけを取得する
+        const manifestResponse = await fetch(MANIFEST_URL, { cache: 'no-store' });
+        if (!manifestResponse.ok) {
+            return await loadFullData(DATA_URL, { cache: 'no-store' });
         }
+        const manifest: GadgetManifest = await manifestResponse.json();
+        const cached = readCache();
 
-        const data: GadgetData = await response.json();
+        if (cached && cached.etag === manifest.etag) {
+            console.log(`Using cached data (version ${cached.version})`);
+            return cached.data;
+        }
 
-        if (!data || !Array.isArray(data.gadgets)) {
-            console.warn('Invalid data format in gadgets.json. Using mock data.');
-            return mockData;
+        const deltaPath = cached ? manifest.deltas[String(cached.version)] : undefined;
+        if (cached && deltaPath) {
+            // 差分ファイルはバージョンごとに名前が変わるため通常のキャッシュで問題ない
+            const deltaResponse = await fetch(`${DATA_BASE}/${deltaPath}`);
+            if (deltaResponse.ok) {
+                const delta: GadgetDelta = await deltaResponse.json();
+                const data = applyDelta(cached.data, delta, manifest);
+                // 手元のキャッシュが壊れていると件数が一致しないため、その場合はフル取得で置き換える
+                if (data.gadgets.length === manifest.count) {
+                    writeCache({ version: manifest.version, etag: manifest.etag, data });
+                    console.log(`Applied delta v${delta.fromVersion} -> v${delta.toVersion} `
+                        + `(+${delta.added.length} ~${delta.updated.length} -${delta.removed.length})`);
+                    return data;
+                }
+                console.warn(`Delta result has ${data.gadgets.length} items but manifest has ${manifest.count}. `
+                    + 'Fetching full data.');
+            }
         }
 
-        console.log(`Successfully loaded ${data.gadgets.length} items from ${DATA_URL}`);
+        const data = await loadFullData(`${DATA_BASE}/${manifest.full}?v=${manifest.version}`, {});
+        if (data !== mockData) {
+            writeCache({ version: manifest.version, etag: manifest.etag, data });
+        }
         return data;
     } catch (error) {
         console.error('Error loading gadgets.json:', error);
         return mockData;
     }
 }
+
+async function loadFullData(url: string, init: RequestInit): Promise<GadgetData> {
+    const response = await fetch(url, init);
+
+    if (!response.ok) {
+        console.warn(`Failed to fetch gadgets.json (status: ${response.status}). Using mock data.`);
+        return mockData;
+    }
+
+    const data: GadgetData = await response.json();
+
+    if (!data || !Array.isArray(data.gadgets)) {
+        console.warn('Invalid data format in gadgets.json. Using mock data.');
+        return mockData;
+    }
+
+    console.log(`Successfully loaded ${data.gadgets.length} items from ${url}`);
+    return data;
+}
+
+function applyDelta(base: GadgetData, delta: GadgetDelta, manifest: GadgetManifest): GadgetData {
+    const byId = new Map<string, Gadget>(base.gadgets.map((g) => [g.id, g]));
+    delta.removed.forEach((id) => byId.delete(id));
+    delta.updated.forEach((g) => byId.set(g.id, g));
+    delta.added.forEach((g) => byId.set(g.id, g));
+
+    // バックエンドと同じく公開日時の新しい順に並べる
+    const gadgets = Array.from(byId.values())
+        .sort((a, b) => Date.parse(b.publishedAt) - Date.parse(a.publishedAt));
+
+    return { gadgets, lastUpdated: manifest.lastUpdated, version: manifest.version };
+}
+
+function readCache(): CachedData | null {
+    try {
+        const stored = localStorage.getItem(CACHE_KEY);
+        if (!stored) {
+            return null;
+        }
+        const cached: CachedData = JSON.parse(stored);
+        return cached && Array.isArray(cached.data?.gadgets) ? cached : null;
+    } catch {
+        return null;
+    }
+}
+
+function writeCache(cached: CachedData): void {
+    try {
+        localStorage.setItem(CACHE_KEY, JSON.stringify(cached));
+    } catch {
+        // 容量超過などで保存できない場合は次回フル取得になるだけなので無視
+    }
+}
@@ -17,4 +17,22 @@ export interface Gadget {
 export interface GadgetData {
   gadgets: Gadget[];
   lastUpdated: string;
+  version?: number;
+}
+
+export interface GadgetManifest {
+  version: number;
+  etag: string;
+  lastUpdated: string;
+  count: number;
+  full: string;
+  deltas: Record<string, string>;
+}
+
+export interface GadgetDelta {
+  fromVersion: number;
+  toVersion: number;
+  added: Gadget[];
+  updated: Gadget[];
+  removed: string[];
 }